@@ -0,0 +1,50 @@
+package com.ayago.smartuitest.engine;
+
+import com.ayago.smartuitest.testscenario.Action;
+import com.ayago.smartuitest.testscenario.ClickAction;
+import com.ayago.smartuitest.testscenario.EnterAction;
+import com.ayago.smartuitest.testscenario.SubmitAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch cost of {@link ActionStrategyRegistry#getStrategy(Action)} over a mix of all action types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ActionStrategyRegistryBenchmark {
+    
+    private ActionStrategyRegistry registry;
+    private Action[] actions;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        registry = new ActionStrategyRegistry(List.of(
+            new ClickActionStrategy(),
+            new EnterActionStrategy(),
+            new SubmitActionStrategy(new EngineProperties())));
+        actions = new Action[] {
+            new ClickAction("Next"),
+            new EnterAction("Search", "term"),
+            new SubmitAction(Map.of("Name", "Jane"))
+        };
+    }
+    
+    @Benchmark
+    public ActionStrategy getStrategy() {
+        Action action = actions[next];
+        next = next == actions.length - 1 ? 0 : next + 1;
+        return registry.getStrategy(action);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ayago.smartuitest.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves a field against a {@link LatencyWebDriver}, where each round trip costs a fixed latency.
+ * Shows how the cost of {@link WebDriverElementResolver} grows with the position of the matching
+ * strategy, compared to the single round trip of {@link ScriptedElementResolver}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+public class ElementResolverBenchmark {
+    
+    /** Strategy that finds the field; NONE means the field does not exist. */
+    @Param({"LABEL_FOR", "LABEL_SIBLING", "ARIA_LABEL", "NONE"})
+    public String matchingStrategy;
+    
+    /** Simulated round trip to the browser. */
+    @Param({"0", "200"})
+    public long latencyMicros;
+    
+    private ElementResolver sequential;
+    private ElementResolver scripted;
+    
+    @Setup
+    public void setUp() {
+        ResolutionStrategy strategy = "NONE".equals(matchingStrategy) ? null : ResolutionStrategy.valueOf(matchingStrategy);
+        WebDriver driver = LatencyWebDriver.create(strategy, TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        EngineMetrics metrics = new EngineMetrics(new SimpleMeterRegistry());
+        sequential = new WebDriverElementResolver(driver, metrics);
+        scripted = new ScriptedElementResolver(driver, metrics);
+    }
+    
+    @Benchmark
+    public WebElement sequential() {
+        return resolve(sequential);
+    }
+    
+    @Benchmark
+    public WebElement scripted() {
+        return resolve(scripted);
+    }
+    
+    private static WebElement resolve(ElementResolver resolver) {
+        try {
+            return resolver.resolveField("Email");
+        } catch (RuntimeException notFound) {
+            return null;
+        }
+    }
+}
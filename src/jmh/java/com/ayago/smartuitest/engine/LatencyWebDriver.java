@@ -0,0 +1,100 @@
+package com.ayago.smartuitest.engine;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-memory {@link WebDriver} for resolver benchmarks. It holds a single field that only the configured
+ * {@link ResolutionStrategy} can find, and spends a fixed latency on every call that would be a round trip
+ * to a real browser ({@code findElement}, {@code executeScript}, {@code getAttribute}).
+ */
+final class LatencyWebDriver {
+    
+    private LatencyWebDriver() {
+    }
+    
+    /**
+     * @param matchingStrategy The only strategy that locates the field, or {@code null} if none does.
+     * @param latencyNanos Simulated duration of one round trip.
+     */
+    static WebDriver create(ResolutionStrategy matchingStrategy, long latencyNanos) {
+        WebElement field = element(latencyNanos, null);
+        WebElement label = element(latencyNanos, "field-id");
+        return (WebDriver) Proxy.newProxyInstance(
+            LatencyWebDriver.class.getClassLoader(),
+            new Class<?>[] {WebDriver.class, JavascriptExecutor.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findElement" -> {
+                    roundTrip(latencyNanos);
+                    ResolutionStrategy queried = strategyOf((By) args[0]);
+                    if (queried == null) {
+                        // By.id(...) after a label match
+                        yield field;
+                    }
+                    if (queried != matchingStrategy) {
+                        throw new NoSuchElementException("No element for " + args[0]);
+                    }
+                    yield queried == ResolutionStrategy.LABEL_FOR ? label : field;
+                }
+                case "executeScript" -> {
+                    roundTrip(latencyNanos);
+                    yield matchingStrategy == null ? null : List.of(field, (long) matchingStrategy.getIndex());
+                }
+                case "toString" -> "LatencyWebDriver(" + matchingStrategy + ")";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+    
+    private static WebElement element(long latencyNanos, String forAttribute) {
+        return (WebElement) Proxy.newProxyInstance(
+            LatencyWebDriver.class.getClassLoader(),
+            new Class<?>[] {WebElement.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getAttribute" -> {
+                    roundTrip(latencyNanos);
+                    yield forAttribute;
+                }
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+    
+    /**
+     * Maps a query of {@link WebDriverElementResolver} back to its strategy by the XPath it uses.
+     */
+    private static ResolutionStrategy strategyOf(By by) {
+        String query = by.toString();
+        if (query.contains("//label[normalize-space(.)=")) {
+            return ResolutionStrategy.LABEL_FOR;
+        }
+        if (query.contains("@placeholder")) {
+            return ResolutionStrategy.PLACEHOLDER_NAME_OR_ID;
+        }
+        if (query.contains("following-sibling")) {
+            return ResolutionStrategy.LABEL_SIBLING;
+        }
+        if (query.contains("@title")) {
+            return ResolutionStrategy.TITLE;
+        }
+        if (query.contains("@aria-label")) {
+            return ResolutionStrategy.ARIA_LABEL;
+        }
+        return null;
+    }
+    
+    private static void roundTrip(long latencyNanos) {
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.SmartUITestApplication;
+import com.ayago.smartuitest.executor.FixtureServer.LabelStyle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suite-level throughput benchmark. Starts a {@link FixtureServer}, generates one scenario JSON per
+ * scenario that walks through its pages (verifying a field, then submitting the whole form), and runs
+ * them with the regular application in headless browsers. Reports scenarios per minute, p50/p95 page
+ * time and WebDriver commands per page, on the console and as JSON.
+ * <p>
+ * The fixture is configured with system properties, every argument is passed on to the application:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ayago.smartuitest.executor.EndToEndBenchmark \
+ *     -De2e.scenarios=20 -De2e.labelStyle=ARIA -Dexec.args="--runner.parallelism=4"
+ * </pre>
+ */
+public final class EndToEndBenchmark {
+    
+    private final int scenarios = Integer.getInteger("e2e.scenarios", 10);
+    private final int pages = Integer.getInteger("e2e.pages", 5);
+    private final int fields = Integer.getInteger("e2e.fields", 8);
+    private final LabelStyle labelStyle = LabelStyle.valueOf(System.getProperty("e2e.labelStyle", LabelStyle.FOR.name()));
+    private final int domSize = Integer.getInteger("e2e.domSize", 200);
+    private final Duration latency = Duration.ofMillis(Long.getLong("e2e.latencyMs", 0));
+    private final String resultFile = System.getProperty("e2e.resultFile", "target/e2e-result.json");
+    
+    private MeterRegistry meterRegistry;
+    private WebDriverCommandMetrics commandMetrics;
+    private long startNanos;
+    
+    private EndToEndBenchmark() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new EndToEndBenchmark().run(args);
+    }
+    
+    private void run(String[] args) throws Exception {
+        Path workDir = Files.createTempDirectory("smart-ui-e2e");
+        try (FixtureServer server = new FixtureServer(pages, fields, labelStyle, domSize, latency)) {
+            Path scenarioDir = Files.createDirectories(workDir.resolve("scenarios"));
+            for (int scenario = 0; scenario < scenarios; scenario++) {
+                writeScenario(server, scenarioDir, "scenario-" + scenario);
+            }
+            
+            List<String> applicationArgs = new ArrayList<>(List.of(
+                scenarioDir.toString(),
+                "--screenshot.folder=" + workDir.resolve("screenshots"),
+                "--runner.headless=true",
+                "--instrumentation.enabled=true"));
+            applicationArgs.addAll(List.of(args));
+            
+            Throwable failure = null;
+            try {
+                application().run(applicationArgs.toArray(String[]::new)).close();
+            } catch (RuntimeException e) {
+                // Failed scenarios still count towards the throughput, they are reported with the results
+                failure = e;
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            report(elapsedNanos, failure);
+        }
+    }
+    
+    /**
+     * The regular application, with hooks to time the run from the moment the context is ready
+     * and to keep a reference to the meters it records.
+     */
+    private SpringApplication application() {
+        SpringApplication application = new SpringApplication(SmartUITestApplication.class);
+        application.addListeners((ApplicationListener<ApplicationStartedEvent>) event -> startNanos = System.nanoTime());
+        application.addInitializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof MeterRegistry registry) {
+                    registry.config().meterFilter(pageTimePercentiles());
+                    meterRegistry = registry;
+                } else if (bean instanceof WebDriverCommandMetrics metrics) {
+                    commandMetrics = metrics;
+                }
+                return bean;
+            }
+        }));
+        return application;
+    }
+    
+    /**
+     * Merges the page timers of all scenarios into one and tracks its percentiles over the whole run.
+     */
+    private static MeterFilter pageTimePercentiles() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                return RunMetrics.PAGE.equals(id.getName()) ? id.replaceTags(List.of()) : id;
+            }
+            
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!RunMetrics.PAGE.equals(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                    .percentiles(0.5, 0.95)
+                    .expiry(Duration.ofDays(1))
+                    .bufferLength(1)
+                    .build()
+                    .merge(config);
+            }
+        };
+    }
+    
+    private void writeScenario(FixtureServer server, Path scenarioDir, String scenario) throws IOException {
+        List<Map<String, Object>> scenarioPages = new ArrayList<>();
+        for (int page = 0; page < pages; page++) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int field = 0; field < fields; field++) {
+                values.put(FixtureServer.fieldName(field), scenario + " page " + page + " value " + field);
+            }
+            Map<String, Object> pageJson = new LinkedHashMap<>();
+            pageJson.put("name", "Page " + page);
+            pageJson.put("expected", List.of(Map.of("target", FixtureServer.fieldName(0), "value", FixtureServer.initialValue(0))));
+            pageJson.put("action", Map.of("actionType", "Submit", "fields", values));
+            scenarioPages.add(pageJson);
+        }
+        
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("host", server.startUrl(scenario));
+        json.put("features", Map.of("E2E_BENCHMARK", Map.of("enable", true, "context", Map.of("province", "N/A", "store", "N/A"))));
+        json.put("pages", scenarioPages);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(scenarioDir.resolve(scenario + ".json").toFile(), json);
+    }
+    
+    private void report(long elapsedNanos, Throwable failure) throws IOException {
+        List<Timer> scenarioTimers = meterRegistry == null ? List.of() : List.copyOf(meterRegistry.find(RunMetrics.SCENARIO).timers());
+        long completedScenarios = scenarioTimers.stream().mapToLong(Timer::count).sum();
+        long failedScenarios = scenarioTimers.stream()
+            .filter(timer -> "failed".equals(timer.getId().getTag("outcome")))
+            .mapToLong(Timer::count)
+            .sum();
+        Timer pageTimer = meterRegistry == null ? null : meterRegistry.find(RunMetrics.PAGE).timer();
+        long completedPages = pageTimer == null ? 0 : pageTimer.count();
+        double minutes = elapsedNanos / (double) TimeUnit.MINUTES.toNanos(1);
+        
+        Map<String, Object> fixture = new LinkedHashMap<>();
+        fixture.put("scenarios", scenarios);
+        fixture.put("pages", pages);
+        fixture.put("fields", fields);
+        fixture.put("labelStyle", labelStyle.name());
+        fixture.put("domSize", domSize);
+        fixture.put("latencyMillis", latency.toMillis());
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fixture", fixture);
+        result.put("scenariosRun", completedScenarios);
+        result.put("scenariosFailed", failedScenarios);
+        result.put("elapsedSeconds", elapsedNanos / 1e9);
+        result.put("scenariosPerMinute", minutes > 0 ? completedScenarios / minutes : 0.0);
+        result.put("pagesCompleted", completedPages);
+        result.put("pageP50Millis", percentileMillis(pageTimer, 0.5));
+        result.put("pageP95Millis", percentileMillis(pageTimer, 0.95));
+        result.put("commandsPerPage", completedPages == 0 ? 0.0 : (double) totalCommands() / completedPages);
+        
+        System.out.println("End-to-end benchmark results:");
+        result.forEach((key, value) -> System.out.println("  " + key + ": " + value));
+        if (failure != null) {
+            System.err.println("EndToEndBenchmark: The run reported failures: " + failure.getMessage());
+        }
+        
+        Path target = Path.of(resultFile).toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(target.toFile(), result);
+        System.out.println("End-to-end benchmark results written to: " + target);
+    }
+    
+    private static double percentileMillis(Timer timer, double percentile) {
+        if (timer == null) {
+            return 0.0;
+        }
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0.0;
+    }
+    
+    /**
+     * All WebDriver commands of the run, including those issued while setting up a scenario, so that
+     * the per-page figure also reflects the scenario overhead.
+     */
+    private long totalCommands() {
+        if (commandMetrics == null || !(commandMetrics.snapshot().get("pages") instanceof List<?> recordedPages)) {
+            return 0;
+        }
+        return recordedPages.stream()
+            .mapToLong(page -> ((Number) ((Map<?, ?>) page).get("commands")).longValue())
+            .sum();
+    }
+}
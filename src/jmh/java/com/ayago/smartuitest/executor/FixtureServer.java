@@ -0,0 +1,146 @@
+package com.ayago.smartuitest.executor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local HTTP server serving generated form pages, so that end-to-end runs do not depend on external hosts.
+ * <p>
+ * Every scenario gets its own path, {@code /<scenario>/page/<n>}. A page holds a form with
+ * {@code fields} inputs named {@code Field 0 .. Field n-1}, labelled with the configured {@link LabelStyle},
+ * and {@code domSize} filler elements around it. Submitting the form leads to the next page, the form of the
+ * last page to {@code /<scenario>/done}. Every response is delayed by {@code latency}.
+ */
+final class FixtureServer implements AutoCloseable {
+    
+    private static final Pattern PAGE_PATH = Pattern.compile("/([^/]+)/page/(\\d+)");
+    
+    /**
+     * How the fields of a page are labelled, i.e. which resolution strategy finds them.
+     */
+    enum LabelStyle {
+        /** {@code <label for="...">}, found by the first strategy. */
+        FOR,
+        /** A {@code <label>} directly followed by its input. */
+        SIBLING,
+        /** The field name as {@code placeholder}. */
+        PLACEHOLDER,
+        /** The field name as {@code aria-label}, found by the last strategy. */
+        ARIA
+    }
+    
+    private final int pages;
+    private final int fields;
+    private final LabelStyle labelStyle;
+    private final int domSize;
+    private final Duration latency;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    
+    FixtureServer(int pages, int fields, LabelStyle labelStyle, int domSize, Duration latency) throws IOException {
+        this.pages = pages;
+        this.fields = fields;
+        this.labelStyle = labelStyle;
+        this.domSize = domSize;
+        this.latency = latency;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    /**
+     * @return The URL of the first page of the given scenario.
+     */
+    String startUrl(String scenario) {
+        return "http://localhost:" + server.getAddress().getPort() + "/" + scenario + "/page/0";
+    }
+    
+    static String fieldName(int field) {
+        return "Field " + field;
+    }
+    
+    static String initialValue(int field) {
+        return "initial " + field;
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!latency.isZero()) {
+                Thread.sleep(latency.toMillis());
+            }
+            String path = exchange.getRequestURI().getPath();
+            Matcher page = PAGE_PATH.matcher(path);
+            if (page.matches()) {
+                respond(exchange, 200, page(page.group(1), Integer.parseInt(page.group(2))));
+            } else if (path.endsWith("/done")) {
+                respond(exchange, 200, "<!DOCTYPE html><html><head><title>Done</title></head><body><h1>Done</h1></body></html>");
+            } else {
+                respond(exchange, 404, "<!DOCTYPE html><html><body>Not found</body></html>");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private String page(String scenario, int pageNumber) {
+        String next = pageNumber + 1 < pages ? "/" + scenario + "/page/" + (pageNumber + 1) : "/" + scenario + "/done";
+        StringBuilder html = new StringBuilder(512 + fields * 160 + domSize * 48);
+        html.append("<!DOCTYPE html><html><head><title>Page ").append(pageNumber).append("</title></head><body>");
+        appendFiller(html, domSize / 2);
+        html.append("<form method=\"get\" action=\"").append(next).append("\">");
+        for (int field = 0; field < fields; field++) {
+            String id = "f" + field;
+            String name = fieldName(field);
+            String value = initialValue(field);
+            html.append("<div class=\"row\">");
+            switch (labelStyle) {
+                case FOR -> html.append("<label for=\"").append(id).append("\">").append(name).append("</label>")
+                    .append("<input type=\"text\" id=\"").append(id).append("\" name=\"").append(id).append("\" value=\"").append(value).append("\">");
+                case SIBLING -> html.append("<label>").append(name).append("</label>")
+                    .append("<input type=\"text\" name=\"").append(id).append("\" value=\"").append(value).append("\">");
+                case PLACEHOLDER -> html.append("<input type=\"text\" name=\"").append(id).append("\" placeholder=\"").append(name)
+                    .append("\" value=\"").append(value).append("\">");
+                case ARIA -> html.append("<input type=\"text\" name=\"").append(id).append("\" aria-label=\"").append(name)
+                    .append("\" value=\"").append(value).append("\">");
+            }
+            html.append("</div>");
+        }
+        html.append("<button type=\"submit\">Submit</button></form>");
+        appendFiller(html, domSize - domSize / 2);
+        return html.append("</body></html>").toString();
+    }
+    
+    private static void appendFiller(StringBuilder html, int elements) {
+        for (int element = 0; element < elements; element++) {
+            html.append("<div class=\"filler\"><span>Filler ").append(element).append("</span></div>");
+        }
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ayago.smartuitest.testscenario.json;
+
+import com.ayago.smartuitest.testscenario.Action;
+import com.ayago.smartuitest.testscenario.ClickAction;
+import com.ayago.smartuitest.testscenario.EnterAction;
+import com.ayago.smartuitest.testscenario.SubmitAction;
+import com.ayago.smartuitest.testscenario.TestScenario;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link ActionDeserializer} and {@link FeaturesDeserializer} in isolation, on an
+ * {@link ObjectMapper} configured like the one of {@link JsonTestScenarioParser}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeserializerBenchmark {
+    
+    /**
+     * Gives the features deserializer a property to be attached to, like the features of a scenario.
+     */
+    static class FeaturesHolder {
+        @JsonProperty("features")
+        @JsonDeserialize(using = FeaturesDeserializer.class)
+        Map<String, TestScenario.Feature> features;
+    }
+    
+    static ObjectMapper scenarioMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.addMixIn(ClickAction.class, ActionMixIns.ClickActionMixIn.class);
+        mapper.addMixIn(EnterAction.class, ActionMixIns.EnterActionMixIn.class);
+        mapper.addMixIn(SubmitAction.class, ActionMixIns.SubmitActionMixIn.class);
+        SimpleModule actionModule = new SimpleModule("ActionDeserializerModule");
+        actionModule.addDeserializer(Action.class, new ActionDeserializer());
+        mapper.registerModule(actionModule);
+        return mapper;
+    }
+    
+    @State(Scope.Benchmark)
+    public static class ActionInput {
+        @Param({"Click", "Enter", "Submit"})
+        public String actionType;
+        
+        ObjectReader reader;
+        String json;
+        
+        @Setup
+        public void setUp() {
+            reader = scenarioMapper().readerFor(Action.class);
+            json = ScenarioJson.action(switch (actionType) {
+                case "Click" -> 0;
+                case "Enter" -> 1;
+                default -> 2;
+            });
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class FeaturesInput {
+        @Param({"1", "20"})
+        public int features;
+        
+        ObjectReader reader;
+        String json;
+        
+        @Setup
+        public void setUp() {
+            reader = scenarioMapper().readerFor(FeaturesHolder.class);
+            json = "{\"features\":" + ScenarioJson.features(features) + "}";
+        }
+    }
+    
+    @Benchmark
+    public Action deserializeAction(ActionInput input) throws IOException {
+        return input.reader.readValue(input.json);
+    }
+    
+    @Benchmark
+    public Map<String, TestScenario.Feature> deserializeFeatures(FeaturesInput input) throws IOException {
+        FeaturesHolder holder = input.reader.readValue(input.json);
+        return holder.features;
+    }
+}
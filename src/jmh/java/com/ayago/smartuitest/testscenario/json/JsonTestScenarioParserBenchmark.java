@@ -0,0 +1,52 @@
+package com.ayago.smartuitest.testscenario.json;
+
+import com.ayago.smartuitest.testscenario.TestScenario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses generated scenario files of increasing size from disk, as the runner does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonTestScenarioParserBenchmark {
+    
+    /** Small, medium and very large scenarios. */
+    @Param({"5", "100", "5000"})
+    public int pages;
+    
+    private JsonTestScenarioParser parser;
+    private Path scenarioFile;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        parser = new JsonTestScenarioParser();
+        scenarioFile = Files.createTempFile("scenario-" + pages, ".json");
+        Files.writeString(scenarioFile, ScenarioJson.scenario(pages, 5));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(scenarioFile);
+    }
+    
+    @Benchmark
+    public TestScenario parse() throws IOException {
+        return parser.parse(new File(scenarioFile.toString()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.ayago.smartuitest.testscenario.json;
+
+/**
+ * Generates scenario JSON of a given size for the parser benchmarks. Pages cycle through the three
+ * action types and every page declares a few expected values, like a typical form-driven flow.
+ */
+final class ScenarioJson {
+    
+    private ScenarioJson() {
+    }
+    
+    static String scenario(int pages, int features) {
+        StringBuilder json = new StringBuilder(256 + pages * 256);
+        json.append("{\"host\":\"http://localhost:8080/\",\"features\":").append(features(features)).append(",\"pages\":[");
+        for (int page = 0; page < pages; page++) {
+            if (page > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"Page ").append(page).append("\",\"expected\":[");
+            for (int field = 0; field < 3; field++) {
+                if (field > 0) {
+                    json.append(',');
+                }
+                json.append("{\"target\":\"Field ").append(field).append("\",\"value\":\"value ").append(page).append("\"}");
+            }
+            json.append("],\"action\":").append(action(page)).append('}');
+        }
+        return json.append("]}").toString();
+    }
+    
+    static String features(int features) {
+        StringBuilder json = new StringBuilder("{");
+        for (int feature = 0; feature < features; feature++) {
+            if (feature > 0) {
+                json.append(',');
+            }
+            json.append("\"FEATURE_").append(feature).append("\":{\"enable\":").append(feature % 2 == 0)
+                .append(",\"context\":{\"province\":\"P").append(feature).append("\",\"store\":\"S").append(feature).append("\"}}");
+        }
+        return json.append('}').toString();
+    }
+    
+    static String action(int index) {
+        return switch (index % 3) {
+            case 0 -> "{\"actionType\":\"Click\",\"target\":\"Next " + index + "\"}";
+            case 1 -> "{\"actionType\":\"Enter\",\"targetField\":\"Search\",\"value\":\"term " + index + "\"}";
+            default -> "{\"actionType\":\"Submit\",\"fields\":{\"Name\":\"Jane\",\"Email\":\"jane@example.com\",\"Message\":\"Hello " + index + "\"}}";
+        };
+    }
+}
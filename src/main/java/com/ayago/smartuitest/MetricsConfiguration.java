@@ -0,0 +1,19 @@
+package com.ayago.smartuitest;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the Micrometer registry that the runner, the engine and the parser record into.
+ * A Prometheus registry is used so that the run can end with a scrape file (see {@code metrics.prometheusFile}).
+ */
+@Configuration
+public class MetricsConfiguration{
+    
+    @Bean
+    public PrometheusMeterRegistry meterRegistry(){
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ayago.smartuitest.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the execution of an action through its {@link ActionStrategy}.
+ */
+@Name("com.ayago.smartuitest.Action")
+@Label("Action")
+@Category({"Smart UI Test", "Engine"})
+@Description("Execution of a scenario action by its ActionStrategy, including the pre-action screenshot")
+@StackTrace(false)
+final class ActionEvent extends Event {
+    
+    @Label("Action Type")
+    String actionType;
+    
+    @Label("Success")
+    boolean success;
+    
+    /** Start of the action for the Micrometer timer; not part of the recorded event. */
+    transient long startNanos;
+}
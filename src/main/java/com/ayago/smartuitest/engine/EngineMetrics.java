@@ -0,0 +1,99 @@
+package com.ayago.smartuitest.engine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer timers and JFR events for the engine's own steps: field resolution, tagged by the
+ * strategy that matched, and action execution, tagged by action type.
+ * Each step is started with {@code start...}, which begins its JFR event, and finished with the
+ * matching completion method, which records the timer and commits the event.
+ */
+final class EngineMetrics {
+    
+    static final String RESOLVE_FIELD = "smartui.resolve.field";
+    static final String ACTION = "smartui.action";
+    
+    /** Tag value for a field that no strategy could locate. */
+    static final String NOT_FOUND = "NOT_FOUND";
+    
+    /** Tag value for a resolver that could not run and handed the field to another resolver. */
+    static final String FALLBACK = "FALLBACK";
+    
+    /**
+     * Records into the global registry, which is a no-op unless a registry was added to it.
+     * Used by resolvers and engines that were created without a registry.
+     */
+    static final EngineMetrics GLOBAL = new EngineMetrics(Metrics.globalRegistry);
+    
+    private final MeterRegistry registry;
+    
+    EngineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    ResolveFieldEvent startResolve(String fieldName) {
+        ResolveFieldEvent attempt = new ResolveFieldEvent();
+        attempt.fieldName = fieldName;
+        attempt.startNanos = System.nanoTime();
+        attempt.begin();
+        return attempt;
+    }
+    
+    /**
+     * @param strategy The strategy that located the field, or {@code null} if none did.
+     */
+    void fieldResolved(ResolveFieldEvent attempt, String resolver, ResolutionStrategy strategy) {
+        attempt.resolver = resolver;
+        attempt.found = strategy != null;
+        attempt.strategy = strategy != null ? strategy.name() : NOT_FOUND;
+        attempt.strategyIndex = strategy != null ? strategy.getIndex() : 0;
+        complete(attempt);
+    }
+    
+    /**
+     * Ends an attempt that the resolver could not carry out itself, before the field is handed to
+     * the resolver it falls back to, which records an attempt of its own.
+     */
+    void fieldResolutionFellBack(ResolveFieldEvent attempt, String resolver) {
+        attempt.resolver = resolver;
+        attempt.found = false;
+        attempt.strategy = FALLBACK;
+        attempt.strategyIndex = 0;
+        complete(attempt);
+    }
+    
+    ActionEvent startAction(String actionType) {
+        ActionEvent execution = new ActionEvent();
+        execution.actionType = actionType;
+        execution.startNanos = System.nanoTime();
+        execution.begin();
+        return execution;
+    }
+    
+    void actionExecuted(ActionEvent execution, boolean success) {
+        execution.end();
+        Timer.builder(ACTION)
+            .description("Time to execute an action through its ActionStrategy")
+            .tag("action", execution.actionType)
+            .tag("outcome", success ? "success" : "failure")
+            .register(registry)
+            .record(System.nanoTime() - execution.startNanos, TimeUnit.NANOSECONDS);
+        execution.success = success;
+        execution.commit();
+    }
+    
+    private void complete(ResolveFieldEvent attempt) {
+        attempt.end();
+        Timer.builder(RESOLVE_FIELD)
+            .description("Time to locate a field by its descriptive name")
+            .tag("resolver", attempt.resolver)
+            .tag("strategy", attempt.strategy)
+            .register(registry)
+            .record(System.nanoTime() - attempt.startNanos, TimeUnit.NANOSECONDS);
+        attempt.commit();
+    }
+}
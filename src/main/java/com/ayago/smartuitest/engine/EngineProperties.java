@@ -0,0 +1,109 @@
+package com.ayago.smartuitest.engine;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("engine")
+public class EngineProperties {
+    
+    private final Resolver resolver = new Resolver();
+    
+    private final Submit submit = new Submit();
+    
+    private final PageSettle pageSettle = new PageSettle();
+    
+    public Resolver getResolver() {
+        return resolver;
+    }
+    
+    public Submit getSubmit() {
+        return submit;
+    }
+    
+    public PageSettle getPageSettle() {
+        return pageSettle;
+    }
+    
+    public static class Resolver {
+        private ResolverMode mode = ResolverMode.SCRIPT;
+        
+        public ResolverMode getMode() {
+            return mode;
+        }
+        
+        public void setMode(ResolverMode mode) {
+            this.mode = mode;
+        }
+    }
+    
+    public static class Submit {
+        /**
+         * Fills all fields of a SubmitAction with one script execution instead of resolve, clear and
+         * sendKeys per field. Values are set directly and {@code input}/{@code change} events are fired,
+         * so no individual keystrokes are simulated.
+         */
+        private boolean fastFill = false;
+        
+        public boolean isFastFill() {
+            return fastFill;
+        }
+        
+        public void setFastFill(boolean fastFill) {
+            this.fastFill = fastFill;
+        }
+    }
+    
+    public static class PageSettle {
+        /**
+         * Waits for the page to settle after the initial navigation and after every action.
+         */
+        private boolean enabled = true;
+        
+        /**
+         * How long the page must stay free of DOM changes and pending requests to count as settled.
+         */
+        private Duration quietWindow = Duration.ofMillis(300);
+        
+        /**
+         * Upper bound for a single wait. A page that is still loading by then fails the scenario.
+         */
+        private Duration timeout = Duration.ofSeconds(15);
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Duration getQuietWindow() {
+            return quietWindow;
+        }
+        
+        public void setQuietWindow(Duration quietWindow) {
+            this.quietWindow = quietWindow;
+        }
+        
+        public Duration getTimeout() {
+            return timeout;
+        }
+        
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+    
+    /**
+     * How fields are located on a page.
+     */
+    public enum ResolverMode {
+        /** All strategies are evaluated in the browser in a single round trip ({@link ScriptedElementResolver}). */
+        SCRIPT,
+        /** Each strategy is a separate {@code findElement} call ({@link WebDriverElementResolver}). */
+        SEQUENTIAL
+    }
+}
@@ -0,0 +1,46 @@
+package com.ayago.smartuitest.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Holds the in-browser field resolution library ({@code field-resolver.js}) and the scripts built on it.
+ * The library is read from the classpath once and every script is assembled up front, so executing
+ * one only costs the single {@code executeScript} round trip.
+ */
+final class FieldResolverScript {
+    
+    private static final String LIBRARY = load("field-resolver.js");
+    
+    /**
+     * Resolves {@code arguments[0]} and returns {@code [element, strategyIndex]}, or {@code null}.
+     */
+    static final String RESOLVE_FIELD = LIBRARY + "\nreturn smartUiResolveField(arguments[0]);";
+    
+    /**
+     * Resolves every field name in the list {@code arguments[0]} and reads its value.
+     */
+    static final String READ_FIELD_VALUES = LIBRARY + "\nreturn smartUiReadFieldValues(arguments[0]);";
+    
+    /**
+     * Resolves and fills every {@code [fieldName, value]} pair in the list {@code arguments[0]},
+     * firing {@code input} and {@code change} events for each field.
+     */
+    static final String FILL_FIELDS = LIBRARY + "\nreturn smartUiFillFields(arguments[0]);";
+    
+    private FieldResolverScript() {
+    }
+    
+    private static String load(String resourceName) {
+        try (InputStream in = FieldResolverScript.class.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing classpath resource: " + resourceName);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read classpath resource: " + resourceName, e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ayago.smartuitest.engine;
+
+/**
+ * The value read from a field, or the reason it could not be read.
+ * Returned per field by {@link WebInteractionEngine#getFieldValues(java.util.List)} so that one
+ * missing field does not hide the values of the others.
+ */
+public final class FieldValue {
+    
+    private final boolean found;
+    private final String value;
+    private final String error;
+    
+    private FieldValue(boolean found, String value, String error) {
+        this.found = found;
+        this.value = value;
+        this.error = error;
+    }
+    
+    public static FieldValue found(String value) {
+        return new FieldValue(true, value, null);
+    }
+    
+    public static FieldValue failed(String error) {
+        return new FieldValue(false, null, error);
+    }
+    
+    /**
+     * @return {@code true} if the field was resolved and its value read.
+     */
+    public boolean isFound() {
+        return found;
+    }
+    
+    /**
+     * @return The value of the field, as {@code WebElement.getAttribute("value")} would return it.
+     * Only meaningful if {@link #isFound()}.
+     */
+    public String getValue() {
+        return value;
+    }
+    
+    /**
+     * @return Why the field could not be read, or {@code null} if it was found.
+     */
+    public String getError() {
+        return error;
+    }
+    
+    @Override
+    public String toString() {
+        return found
+            ? "FieldValue{value='" + value + "'}"
+            : "FieldValue{error='" + error + "'}";
+    }
+}
@@ -0,0 +1,147 @@
+package com.ayago.smartuitest.engine;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decides when a page has settled after a navigation or an action.
+ * Instead of polling {@code document.readyState} from the test side, a single asynchronous script
+ * ({@code page-settle.js}) waits inside the browser until the document is loaded, no tracked
+ * fetch/XHR request is pending and the DOM has not changed for the configured quiet window.
+ * <p>
+ * When an action triggers a navigation, the script may be torn down with the old document; the
+ * wait is then repeated on the new document, after a short backoff and a limited number of times,
+ * until the overall timeout is reached. Any other driver error (e.g. a lost session) ends the wait.
+ */
+class PageSettleDetector {
+    
+    private static final String SETTLE_SCRIPT = load("page-settle.js");
+    
+    /**
+     * Extra time granted to the driver's script timeout on top of the settle timeout, so that the
+     * script reports back by itself instead of being cut off by the driver.
+     */
+    private static final Duration SCRIPT_TIMEOUT_MARGIN = Duration.ofSeconds(5);
+    
+    /**
+     * How often the wait is repeated on a new document before giving up, and the pause before the
+     * first repetition, doubled for every further one.
+     */
+    private static final int MAX_NAVIGATION_RETRIES = 5;
+    private static final Duration NAVIGATION_BACKOFF = Duration.ofMillis(50);
+    
+    /**
+     * Parts of the script error messages with which drivers report that the document went away.
+     */
+    private static final List<String> NAVIGATION_ERRORS = List.of(
+        "document unloaded", "frame detached", "execution context was destroyed");
+    
+    private final boolean enabled;
+    private final Duration quietWindow;
+    private final Duration timeout;
+    
+    PageSettleDetector(EngineProperties.PageSettle properties) {
+        this.enabled = properties.isEnabled();
+        this.quietWindow = properties.getQuietWindow();
+        this.timeout = properties.getTimeout();
+    }
+    
+    /**
+     * Prepares a driver for {@link #awaitSettled(WebDriver)}: the driver's asynchronous script timeout
+     * must outlast the settle timeout.
+     *
+     * @param driver The WebDriver instance for browser interaction.
+     */
+    void configure(WebDriver driver) {
+        if (!enabled || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        driver.manage().timeouts().scriptTimeout(timeout.plus(SCRIPT_TIMEOUT_MARGIN));
+    }
+    
+    /**
+     * Blocks until the current page is quiet.
+     * A page that is loaded but keeps changing past the timeout (e.g. polling or animations) is
+     * accepted with a warning.
+     *
+     * @param driver The WebDriver instance for browser interaction.
+     * @throws TimeoutException if the document did not finish loading within the timeout, or kept
+     *                          being replaced while waiting.
+     * @throws WebDriverException if the browser failed for any other reason, e.g. the session is gone.
+     */
+    void awaitSettled(WebDriver driver) {
+        if (!enabled || !(driver instanceof JavascriptExecutor javascriptExecutor)) {
+            return;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int retries = 0;
+        while (true) {
+            long remainingMillis = Math.max(0, Duration.ofNanos(deadline - System.nanoTime()).toMillis());
+            Object result;
+            try {
+                result = javascriptExecutor.executeAsyncScript(SETTLE_SCRIPT, quietWindow.toMillis(), remainingMillis);
+            } catch (JavascriptException e) {
+                // The document was replaced while waiting, e.g. by a navigation the action started
+                if (!isNavigation(e)) {
+                    throw e;
+                }
+                if (retries == MAX_NAVIGATION_RETRIES || System.nanoTime() >= deadline) {
+                    throw new TimeoutException("Page did not settle within " + timeout + ": " + e.getMessage(), e);
+                }
+                System.out.println("PageSettleDetector: Page changed while waiting, waiting for the new page to settle.");
+                backOff(NAVIGATION_BACKOFF.multipliedBy(1L << retries++), deadline, e);
+                continue;
+            }
+            
+            if (!(result instanceof Map<?, ?> state) || Boolean.TRUE.equals(state.get("settled"))) {
+                return;
+            }
+            if (!"complete".equals(state.get("readyState"))) {
+                throw new TimeoutException("Page did not finish loading within " + timeout + ": " + state);
+            }
+            System.err.println("PageSettleDetector: Page still active after " + timeout + ", continuing anyway: " + state);
+            return;
+        }
+    }
+    
+    private static boolean isNavigation(JavascriptException e) {
+        String message = String.valueOf(e.getMessage()).toLowerCase(Locale.ROOT);
+        return NAVIGATION_ERRORS.stream().anyMatch(message::contains);
+    }
+    
+    private static void backOff(Duration pause, long deadline, JavascriptException cause) {
+        long sleepNanos = Math.min(pause.toNanos(), deadline - System.nanoTime());
+        if (sleepNanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(sleepNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+    
+    private static String load(String resourceName) {
+        try (InputStream in = PageSettleDetector.class.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing classpath resource: " + resourceName);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read classpath resource: " + resourceName, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ayago.smartuitest.engine;
+
+/**
+ * The strategies used to locate a field by its descriptive name, in priority order.
+ * Both {@link WebDriverElementResolver} and {@link ScriptedElementResolver} evaluate them in this order
+ * and stop at the first match.
+ */
+public enum ResolutionStrategy {
+    /** A label with exactly the field name, followed through its {@code for} attribute. */
+    LABEL_FOR(1),
+    /** An input or textarea with a matching placeholder, or a case-insensitive match on name or id. */
+    PLACEHOLDER_NAME_OR_ID(2),
+    /** A label containing the field name, followed by an input or textarea sibling. */
+    LABEL_SIBLING(3),
+    /** Any element with exactly the field name as its {@code title}. */
+    TITLE(4),
+    /** Any element with exactly the field name as its {@code aria-label}. */
+    ARIA_LABEL(5);
+    
+    private final int index;
+    
+    ResolutionStrategy(int index) {
+        this.index = index;
+    }
+    
+    /**
+     * @return The 1-based position of this strategy in the resolution order.
+     */
+    public int getIndex() {
+        return index;
+    }
+    
+    /**
+     * Looks up a strategy by its 1-based position, as reported by the in-browser resolver script.
+     *
+     * @param index The 1-based position of the strategy.
+     * @return The strategy at that position.
+     * @throws IllegalArgumentException if no strategy has that position.
+     */
+    public static ResolutionStrategy fromIndex(int index) {
+        for (ResolutionStrategy strategy : values()) {
+            if (strategy.index == index) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resolution strategy index: " + index);
+    }
+}
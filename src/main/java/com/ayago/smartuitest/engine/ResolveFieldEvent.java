@@ -0,0 +1,40 @@
+package com.ayago.smartuitest.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one attempt to locate a field by a resolver.
+ */
+@Name("com.ayago.smartuitest.ResolveField")
+@Label("Resolve Field")
+@Category({"Smart UI Test", "Engine"})
+@Description("An attempt to locate a field by its descriptive name")
+@StackTrace(false)
+final class ResolveFieldEvent extends Event {
+    
+    @Label("Field")
+    String fieldName;
+    
+    @Label("Resolver")
+    @Description("script or sequential")
+    String resolver;
+    
+    @Label("Strategy")
+    @Description("Name of the strategy that matched, NOT_FOUND, or FALLBACK if the resolver could not run")
+    String strategy;
+    
+    @Label("Strategy Index")
+    @Description("1-based position of the matching strategy, 0 if none matched")
+    int strategyIndex;
+    
+    @Label("Found")
+    boolean found;
+    
+    /** Start of the attempt for the Micrometer timer; not part of the recorded event. */
+    transient long startNanos;
+}
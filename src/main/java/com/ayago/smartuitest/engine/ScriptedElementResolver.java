@@ -0,0 +1,92 @@
+package com.ayago.smartuitest.engine;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * Implements the ElementResolver interface by evaluating every resolution strategy inside the browser.
+ * The strategies of {@link WebDriverElementResolver} each cost at least one remote call, and a miss
+ * costs as much as a hit. This resolver ships them as a single script, so a field is resolved in one
+ * round trip whichever strategy matches, or none.
+ * <p>
+ * If the script itself cannot be executed, the lookup falls back to the sequential resolver.
+ */
+class ScriptedElementResolver implements ElementResolver {
+    
+    static final String NAME = "script";
+    
+    private final WebDriver driver;
+    private final JavascriptExecutor javascriptExecutor;
+    private final ElementResolver fallback;
+    private final EngineMetrics metrics;
+    
+    /**
+     * Constructs the ScriptedElementResolver.
+     * @param driver The WebDriver instance for browser interaction. Must support JavaScript execution.
+     */
+    ScriptedElementResolver(WebDriver driver) {
+        this(driver, EngineMetrics.GLOBAL);
+    }
+    
+    /**
+     * Constructs the ScriptedElementResolver.
+     * @param driver The WebDriver instance for browser interaction. Must support JavaScript execution.
+     * @param metrics Where the time of each resolution is recorded, tagged by the matching strategy.
+     */
+    ScriptedElementResolver(WebDriver driver, EngineMetrics metrics) {
+        if (!(driver instanceof JavascriptExecutor executor)) {
+            throw new IllegalArgumentException("ScriptedElementResolver requires a WebDriver that can execute JavaScript.");
+        }
+        this.driver = driver;
+        this.javascriptExecutor = executor;
+        this.fallback = new WebDriverElementResolver(driver, metrics);
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Attempts to find a web element based on a field name, evaluating all strategies in one script execution.
+     *
+     * @param fieldName The descriptive name of the field to find.
+     * @return The located WebElement.
+     * @throws IllegalArgumentException if fieldName is null or empty.
+     * @throws RuntimeException if the field cannot be found using any strategy.
+     */
+    @Override
+    public WebElement resolveField(String fieldName) {
+        if (fieldName == null || fieldName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Field name cannot be null or empty for resolveField.");
+        }
+        System.out.println("ScriptedElementResolver: Attempting to resolve field: " + fieldName);
+        ResolveFieldEvent attempt = metrics.startResolve(fieldName);
+        
+        Object result;
+        try {
+            result = javascriptExecutor.executeScript(FieldResolverScript.RESOLVE_FIELD, fieldName);
+        } catch (WebDriverException e) {
+            System.err.println("ScriptedElementResolver: Resolver script failed, falling back to sequential resolution. Error: " + e.getMessage());
+            metrics.fieldResolutionFellBack(attempt, NAME);
+            return fallback.resolveField(fieldName);
+        }
+        
+        if (result instanceof List<?> match && match.size() == 2
+            && match.get(0) instanceof WebElement element && match.get(1) instanceof Number strategyIndex) {
+            ResolutionStrategy strategy = ResolutionStrategy.fromIndex(strategyIndex.intValue());
+            System.out.println("ScriptedElementResolver: Resolved field '" + fieldName + "' using " + strategy + ".");
+            metrics.fieldResolved(attempt, NAME, strategy);
+            return element;
+        }
+        
+        System.err.println("ScriptedElementResolver: Field not found using any strategy: " + fieldName);
+        metrics.fieldResolved(attempt, NAME, null);
+        throw new RuntimeException("Field not found: " + fieldName + " (ScriptedElementResolver)");
+    }
+    
+    @Override
+    public WebDriver underlyingDriver() {
+        return driver;
+    }
+}
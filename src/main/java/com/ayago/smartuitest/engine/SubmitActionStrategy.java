@@ -3,11 +3,15 @@ package com.ayago.smartuitest.engine;
 import com.ayago.smartuitest.testscenario.Action;
 import com.ayago.smartuitest.testscenario.SubmitAction;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,6 +22,12 @@ import java.util.Map;
 @Component
 class SubmitActionStrategy implements ActionStrategy {
     
+    private final EngineProperties engineProperties;
+    
+    SubmitActionStrategy(EngineProperties engineProperties) {
+        this.engineProperties = engineProperties;
+    }
+    
     /**
      * Specifies that this strategy handles actions of type {@link SubmitAction}.
      *
@@ -62,34 +72,11 @@ class SubmitActionStrategy implements ActionStrategy {
         }
         
         // Case 2: Fields are specified. Fill them and then attempt to submit.
-        WebElement lastFieldFilled = null;
         System.out.println("SubmitAction: Processing " + fieldsToFill.size() + " fields to fill.");
-        for (Map.Entry<String, String> entry : fieldsToFill.entrySet()) {
-            String fieldName = entry.getKey();
-            String value = entry.getValue();
-            
-            if (fieldName == null || fieldName.trim().isEmpty()) {
-                System.err.println("SubmitAction: Encountered a field with a null or empty name. Skipping this field.");
-                continue;
-            }
-            if (value == null) {
-                System.err.println("SubmitAction: Field '" + fieldName + "' has a null value. Skipping this field. Use empty string for no value.");
-                continue;
-            }
-            
-            try {
-                WebElement field = resolver.resolveField(fieldName);
-                field.clear();
-                field.sendKeys(value);
-                lastFieldFilled = field; // Keep track of the last field successfully interacted with.
-                System.out.println("SubmitAction: Successfully entered value '" + value + "' into field '" + fieldName + "'.");
-            } catch (Exception e) { // Catch broader exceptions during resolve/sendKeys
-                System.err.println("SubmitAction: Failed to resolve or interact with field '" + fieldName + "'. Error: " + e.getMessage());
-                // Optional: Decide if an error on one field should stop the whole submit action.
-                // For now, it logs the error and continues with other fields.
-                // To stop: throw new RuntimeException("Failed to process field '" + fieldName + "' for submit action.", e);
-            }
-        }
+        WebElement lastFieldFilled = engineProperties.getSubmit().isFastFill()
+            && resolver.underlyingDriver() instanceof JavascriptExecutor javascriptExecutor
+            ? fastFillFields(fieldsToFill, resolver, javascriptExecutor)
+            : fillFieldsOneByOne(fieldsToFill, resolver);
         
         // After attempting to fill all fields, try to submit the form.
         if (lastFieldFilled != null) {
@@ -124,4 +111,91 @@ class SubmitActionStrategy implements ActionStrategy {
                 "If fields were specified but all failed, this indicates issues with field resolution or interaction.");
         }
     }
+    
+    /**
+     * Fills the fields one at a time: resolve, clear and type each value.
+     *
+     * @return The last field that was filled successfully, or {@code null} if none was.
+     */
+    private WebElement fillFieldsOneByOne(Map<String, String> fieldsToFill, ElementResolver resolver) {
+        WebElement lastFieldFilled = null;
+        for (Map.Entry<String, String> entry : fieldsToFill.entrySet()) {
+            String fieldName = entry.getKey();
+            String value = entry.getValue();
+            
+            if (!isFillable(fieldName, value)) {
+                continue;
+            }
+            
+            try {
+                WebElement field = resolver.resolveField(fieldName);
+                field.clear();
+                field.sendKeys(value);
+                lastFieldFilled = field; // Keep track of the last field successfully interacted with.
+                System.out.println("SubmitAction: Successfully entered value '" + value + "' into field '" + fieldName + "'.");
+            } catch (Exception e) { // Catch broader exceptions during resolve/sendKeys
+                System.err.println("SubmitAction: Failed to resolve or interact with field '" + fieldName + "'. Error: " + e.getMessage());
+                // Optional: Decide if an error on one field should stop the whole submit action.
+                // For now, it logs the error and continues with other fields.
+                // To stop: throw new RuntimeException("Failed to process field '" + fieldName + "' for submit action.", e);
+            }
+        }
+        return lastFieldFilled;
+    }
+    
+    /**
+     * Fills all fields with a single script execution. Each value is set directly on the resolved
+     * element followed by {@code input} and {@code change} events, so frameworks bound to those events
+     * (React, Angular, ...) see the new values. The script reports the outcome of every field, which is
+     * logged the same way as in {@link #fillFieldsOneByOne}. Falls back to filling the fields one by one
+     * if the script itself cannot run.
+     *
+     * @return The last field that was filled successfully, or {@code null} if none was.
+     */
+    private WebElement fastFillFields(Map<String, String> fieldsToFill, ElementResolver resolver, JavascriptExecutor javascriptExecutor) {
+        List<List<String>> fillableFields = new ArrayList<>();
+        for (Map.Entry<String, String> entry : fieldsToFill.entrySet()) {
+            if (isFillable(entry.getKey(), entry.getValue())) {
+                fillableFields.add(List.of(entry.getKey(), entry.getValue()));
+            }
+        }
+        if (fillableFields.isEmpty()) {
+            return null;
+        }
+        
+        Object result;
+        try {
+            result = javascriptExecutor.executeScript(FieldResolverScript.FILL_FIELDS, fillableFields);
+        } catch (WebDriverException e) {
+            System.err.println("SubmitAction: Fast fill failed, filling fields one by one. Error: " + e.getMessage());
+            return fillFieldsOneByOne(fieldsToFill, resolver);
+        }
+        if (!(result instanceof Map<?, ?> response) || !(response.get("results") instanceof Map<?, ?> results)) {
+            System.err.println("SubmitAction: Unexpected fast fill result, filling fields one by one: " + result);
+            return fillFieldsOneByOne(fieldsToFill, resolver);
+        }
+        
+        for (List<String> field : fillableFields) {
+            String fieldName = field.get(0);
+            if (results.get(fieldName) instanceof Map<?, ?> fieldResult && Boolean.TRUE.equals(fieldResult.get("filled"))) {
+                System.out.println("SubmitAction: Successfully entered value '" + field.get(1) + "' into field '" + fieldName + "' (fast fill).");
+            } else {
+                Object error = results.get(fieldName) instanceof Map<?, ?> fieldResult ? fieldResult.get("error") : "no result reported";
+                System.err.println("SubmitAction: Failed to resolve or interact with field '" + fieldName + "'. Error: " + error);
+            }
+        }
+        return response.get("lastFilled") instanceof WebElement lastFilled ? lastFilled : null;
+    }
+    
+    private boolean isFillable(String fieldName, String value) {
+        if (fieldName == null || fieldName.trim().isEmpty()) {
+            System.err.println("SubmitAction: Encountered a field with a null or empty name. Skipping this field.");
+            return false;
+        }
+        if (value == null) {
+            System.err.println("SubmitAction: Field '" + fieldName + "' has a null value. Skipping this field. Use empty string for no value.");
+            return false;
+        }
+        return true;
+    }
 }
@@ -11,14 +11,27 @@ import org.openqa.selenium.WebElement;
  */
 class WebDriverElementResolver implements ElementResolver {
     
+    static final String NAME = "sequential";
+    
     private final WebDriver driver;
+    private final EngineMetrics metrics;
     
     /**
      * Constructs the WebDriverElementResolver.
      * @param driver The WebDriver instance for browser interaction.
      */
     WebDriverElementResolver(WebDriver driver) {
+        this(driver, EngineMetrics.GLOBAL);
+    }
+    
+    /**
+     * Constructs the WebDriverElementResolver.
+     * @param driver The WebDriver instance for browser interaction.
+     * @param metrics Where the time of each resolution is recorded, tagged by the matching strategy.
+     */
+    WebDriverElementResolver(WebDriver driver, EngineMetrics metrics) {
         this.driver = driver;
+        this.metrics = metrics;
     }
     
     /**
@@ -35,6 +48,7 @@ class WebDriverElementResolver implements ElementResolver {
             throw new IllegalArgumentException("Field name cannot be null or empty for resolveField.");
         }
         System.out.println("WebDriverElementResolver: Attempting to resolve field: " + fieldName);
+        ResolveFieldEvent attempt = metrics.startResolve(fieldName);
         
         // Strategy 1: Find by label's 'for' attribute (exact match on label text)
         try {
@@ -42,7 +56,9 @@ class WebDriverElementResolver implements ElementResolver {
             String forId = label.getAttribute("for");
             if (forId != null && !forId.isEmpty()) {
                 System.out.println("WebDriverElementResolver: Resolved field '" + fieldName + "' using label's 'for' attribute: " + forId);
-                return driver.findElement(By.id(forId));
+                WebElement element = driver.findElement(By.id(forId));
+                metrics.fieldResolved(attempt, NAME, ResolutionStrategy.LABEL_FOR);
+                return element;
             }
         } catch (NoSuchElementException ignored) {
             // Try next strategy
@@ -60,6 +76,7 @@ class WebDriverElementResolver implements ElementResolver {
                     "//textarea[translate(@id, 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz')='" + cleanFieldNameForAttr + "']"
             ));
             System.out.println("WebDriverElementResolver: Resolved field '" + fieldName + "' using placeholder, name, or id.");
+            metrics.fieldResolved(attempt, NAME, ResolutionStrategy.PLACEHOLDER_NAME_OR_ID);
             return element;
         } catch (NoSuchElementException ignored) {
             // Try next strategy
@@ -72,6 +89,7 @@ class WebDriverElementResolver implements ElementResolver {
                     "//label[contains(normalize-space(.),'" + fieldName + "')]/following-sibling::textarea[1]"
             ));
             System.out.println("WebDriverElementResolver: Resolved field '" + fieldName + "' using label contains text and following-sibling.");
+            metrics.fieldResolved(attempt, NAME, ResolutionStrategy.LABEL_SIBLING);
             return element;
         } catch (NoSuchElementException ignored) {
             // Try next strategy
@@ -81,6 +99,7 @@ class WebDriverElementResolver implements ElementResolver {
         try {
             WebElement element = driver.findElement(By.xpath("//*[@title='" + fieldName + "']"));
             System.out.println("WebDriverElementResolver: Resolved field '" + fieldName + "' using title attribute.");
+            metrics.fieldResolved(attempt, NAME, ResolutionStrategy.TITLE);
             return element;
         } catch (NoSuchElementException ignored) {
             // Element not found by title
@@ -90,12 +109,14 @@ class WebDriverElementResolver implements ElementResolver {
         try {
             WebElement element = driver.findElement(By.xpath("//*[@aria-label='" + fieldName + "']"));
             System.out.println("WebDriverElementResolver: Resolved field '" + fieldName + "' using aria-label attribute.");
+            metrics.fieldResolved(attempt, NAME, ResolutionStrategy.ARIA_LABEL);
             return element;
         } catch (NoSuchElementException ignored) {
             // Element not found by aria-label
         }
         
         System.err.println("WebDriverElementResolver: Field not found using any strategy: " + fieldName);
+        metrics.fieldResolved(attempt, NAME, null);
         throw new RuntimeException("Field not found: " + fieldName + " (WebDriverElementResolver)");
     }
     
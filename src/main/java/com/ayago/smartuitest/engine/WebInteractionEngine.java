@@ -1,27 +1,66 @@
 package com.ayago.smartuitest.engine;
 
 import com.ayago.smartuitest.testscenario.Action;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Engine responsible for orchestrating web actions.
  * It uses an ActionStrategyRegistry to find the correct strategy for an action
- * and an internally managed WebDriverElementResolver to locate elements on the page,
+ * and an internally managed ElementResolver to locate elements on the page,
  * which is then passed to the strategies.
  */
 public class WebInteractionEngine{
     private final ActionStrategyRegistry actionStrategyRegistry;
-    private final ElementResolver elementResolver; // Instance of WebDriverElementResolver
+    private final ElementResolver elementResolver; // ScriptedElementResolver or WebDriverElementResolver
+    private final boolean scriptedResolution;
+    private final PageSettleDetector pageSettleDetector;
+    private final EngineMetrics metrics;
     
     /**
-     * Constructs the SmartLocatorEngine.
-     * It initializes its own WebDriverElementResolver instance.
+     * Constructs the SmartLocatorEngine with the default {@link EngineProperties}.
      *
      * @param driver The WebDriver instance for browser interaction.
      * @param actionStrategyRegistry The registry that provides action execution strategies.
      */
     public WebInteractionEngine(WebDriver driver, ActionStrategyRegistry actionStrategyRegistry) {
+        this(driver, actionStrategyRegistry, new EngineProperties());
+    }
+    
+    /**
+     * Constructs the SmartLocatorEngine.
+     * It initializes its own resolver instance.
+     *
+     * @param driver The WebDriver instance for browser interaction.
+     * @param actionStrategyRegistry The registry that provides action execution strategies.
+     * @param engineProperties Whether fields are resolved by a single in-browser script or by sequential
+     *                         {@code findElement} calls (drivers that cannot execute JavaScript always use
+     *                         the latter), and how to wait for the page to settle after an action.
+     */
+    public WebInteractionEngine(WebDriver driver, ActionStrategyRegistry actionStrategyRegistry,
+                                EngineProperties engineProperties) {
+        this(driver, actionStrategyRegistry, engineProperties, Metrics.globalRegistry);
+    }
+    
+    /**
+     * Constructs the SmartLocatorEngine, recording field resolution and action timings in the given registry.
+     *
+     * @param driver The WebDriver instance for browser interaction.
+     * @param actionStrategyRegistry The registry that provides action execution strategies.
+     * @param engineProperties How fields are resolved and how to wait for the page to settle.
+     * @param meterRegistry Registry for the {@code smartui.resolve.field} and {@code smartui.action} timers.
+     */
+    public WebInteractionEngine(WebDriver driver, ActionStrategyRegistry actionStrategyRegistry,
+                                EngineProperties engineProperties, MeterRegistry meterRegistry) {
         if (driver == null) {
             throw new IllegalArgumentException("WebDriver instance cannot be null for SmartLocatorEngine.");
         }
@@ -29,7 +68,13 @@ public class WebInteractionEngine{
             throw new IllegalArgumentException("ActionStrategyRegistry cannot be null for SmartLocatorEngine.");
         }
         this.actionStrategyRegistry = actionStrategyRegistry;
-        this.elementResolver = new WebDriverElementResolver(driver);
+        this.scriptedResolution = engineProperties.getResolver().getMode() == EngineProperties.ResolverMode.SCRIPT
+            && driver instanceof JavascriptExecutor;
+        this.metrics = new EngineMetrics(meterRegistry);
+        this.elementResolver = scriptedResolution
+            ? new ScriptedElementResolver(driver, metrics)
+            : new WebDriverElementResolver(driver, metrics);
+        this.pageSettleDetector = new PageSettleDetector(engineProperties.getPageSettle());
     }
     
     public String getFieldValue(String fieldName){
@@ -37,6 +82,25 @@ public class WebInteractionEngine{
         return webElement.getAttribute("value");
     }
     
+    /**
+     * Reads the values of several fields at once. With scripted resolution all fields are resolved
+     * and read in a single script execution, instead of a resolve and a {@code getAttribute} round trip
+     * per field.
+     * With sequential resolution the fields are read one by one.
+     *
+     * @param fieldNames The descriptive names of the fields to read.
+     * @return The value, or the failure to read it, for every field name, in the order given.
+     */
+    public Map<String, FieldValue> getFieldValues(List<String> fieldNames){
+        if (fieldNames == null) {
+            throw new IllegalArgumentException("Field names cannot be null for getFieldValues.");
+        }
+        if (fieldNames.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return scriptedResolution ? readFieldValuesInBrowser(fieldNames) : readFieldValuesSequentially(fieldNames);
+    }
+    
     public void performAction(Action action, Runnable executeBefore){
         if (action == null) {
             throw new IllegalArgumentException("Action to perform cannot be null.");
@@ -44,9 +108,56 @@ public class WebInteractionEngine{
         System.out.println("SmartLocatorEngine: Attempting to perform action: " + action);
         
         ActionStrategy strategy = actionStrategyRegistry.getStrategy(action);
-        strategy.execute(action, executeBefore, this.elementResolver);
+        ActionEvent execution = metrics.startAction(action.getClass().getSimpleName());
+        boolean success = false;
+        try {
+            strategy.execute(action, executeBefore, this.elementResolver);
+            success = true;
+        } finally {
+            metrics.actionExecuted(execution, success);
+        }
+        // Effects of the action (navigation, XHR, re-rendering) must be over before the next step reads the page
+        pageSettleDetector.awaitSettled(elementResolver.underlyingDriver());
         
         System.out.println("SmartLocatorEngine: Action performed successfully: " + action);
     }
+    
+    private Map<String, FieldValue> readFieldValuesInBrowser(List<String> fieldNames){
+        JavascriptExecutor javascriptExecutor = (JavascriptExecutor) elementResolver.underlyingDriver();
+        Object result;
+        try {
+            result = javascriptExecutor.executeScript(FieldResolverScript.READ_FIELD_VALUES, fieldNames);
+        } catch (WebDriverException e) {
+            System.err.println("SmartLocatorEngine: Bulk field read failed, reading fields one by one. Error: " + e.getMessage());
+            return readFieldValuesSequentially(fieldNames);
+        }
+        if (!(result instanceof Map<?, ?> response) || !(response.get("values") instanceof Map<?, ?> values)) {
+            System.err.println("SmartLocatorEngine: Unexpected bulk field read result, reading fields one by one: " + result);
+            return readFieldValuesSequentially(fieldNames);
+        }
+        
+        Map<String, FieldValue> fieldValues = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            if (values.get(fieldName) instanceof Map<?, ?> entry && Boolean.TRUE.equals(entry.get("found"))) {
+                fieldValues.put(fieldName, FieldValue.found((String) entry.get("value")));
+            } else if (values.get(fieldName) instanceof Map<?, ?> entry) {
+                fieldValues.put(fieldName, FieldValue.failed(String.valueOf(entry.get("error"))));
+            } else {
+                fieldValues.put(fieldName, FieldValue.failed("Field not found: " + fieldName + " (ScriptedElementResolver)"));
+            }
+        }
+        return fieldValues;
+    }
+    
+    private Map<String, FieldValue> readFieldValuesSequentially(List<String> fieldNames){
+        Map<String, FieldValue> fieldValues = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            try {
+                fieldValues.put(fieldName, FieldValue.found(getFieldValue(fieldName)));
+            } catch (RuntimeException e) {
+                fieldValues.put(fieldName, FieldValue.failed(e.getMessage()));
+            }
+        }
+        return fieldValues;
+    }
 }
-
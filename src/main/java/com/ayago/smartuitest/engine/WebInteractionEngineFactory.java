@@ -1,35 +1,32 @@
 package com.ayago.smartuitest.engine;
 
-import org.openqa.selenium.JavascriptExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
-
 @Component
 public class WebInteractionEngineFactory{
     
     private final ActionStrategyRegistry strategyRegistry;
+    private final EngineProperties engineProperties;
+    private final MeterRegistry meterRegistry;
     
-    public WebInteractionEngineFactory(ActionStrategyRegistry strategyRegistry){
+    public WebInteractionEngineFactory(ActionStrategyRegistry strategyRegistry, EngineProperties engineProperties,
+                                       MeterRegistry meterRegistry){
         this.strategyRegistry = strategyRegistry;
+        this.engineProperties = engineProperties;
+        this.meterRegistry = meterRegistry;
     }
     
+    /**
+     * Opens the host in the given browser and returns an engine bound to it once the page has settled
+     * (see {@link PageSettleDetector}).
+     */
     public WebInteractionEngine create(WebDriver webDriver, String host){
+        PageSettleDetector pageSettleDetector = new PageSettleDetector(engineProperties.getPageSettle());
+        pageSettleDetector.configure(webDriver);
         webDriver.get(host);
-        waitForPageToLoad(webDriver, 15);
-        return new WebInteractionEngine(webDriver, strategyRegistry);
-    }
-    
-    public void waitForPageToLoad(WebDriver driver, long timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
-        
-        // Custom ExpectedCondition to check document.readyState
-        ExpectedCondition<Boolean> pageLoadCondition =
-            driver1 -> ((JavascriptExecutor) driver1).executeScript("return document.readyState").equals("complete");
-        wait.until(pageLoadCondition);
+        pageSettleDetector.awaitSettled(webDriver);
+        return new WebInteractionEngine(webDriver, strategyRegistry, engineProperties, meterRegistry);
     }
 }
@@ -0,0 +1,143 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario;
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+import com.ayago.smartuitest.testscenario.TestScenario.Page;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openqa.selenium.WebDriver;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Browser states captured after the snapshot page of a scenario, restored by later scenarios so that
+ * they skip the pages leading there, typically a login.
+ * <p>
+ * A snapshot is only reused by a scenario with the same host, feature flags and pages up to the snapshot
+ * page, i.e. one that would have reached the same state itself. Snapshots expire after
+ * {@code snapshots.ttl}, before the session they hold would, and all of them are dropped when a feature
+ * flag changes, since the application may hand out different state under different flags.
+ */
+@Component
+class BrowserSnapshots{
+    
+    /**
+     * Identifies the state a scenario reaches after its snapshot page.
+     *
+     * @param pages The pages up to and including the snapshot page.
+     */
+    record Key(String host, Map<String, Feature> features, List<Page> pages){
+    }
+    
+    private final Duration ttl;
+    private final Map<Key, Entry> snapshots = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expired;
+    
+    BrowserSnapshots(MeterRegistry meterRegistry, RunnerProperties runnerProperties){
+        this.ttl = runnerProperties.getSnapshots().getTtl();
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.expired = lookupCounter(meterRegistry, "expired");
+    }
+    
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result){
+        return Counter.builder("smartui.snapshot.lookups")
+            .description("Browser state snapshots looked up by scenarios, by whether one could be restored")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * @return The key of the state the scenario reaches after its snapshot page, or {@code null} if it
+     * declares no snapshot or snapshots are disabled.
+     */
+    Key keyOf(TestScenario scenario){
+        if (scenario.getSnapshot() == null || !isEnabled()) {
+            return null;
+        }
+        List<Page> pages = scenario.getPages();
+        for (int i = 0; i < pages.size(); i++) {
+            if (Objects.equals(pages.get(i).getName(), scenario.getSnapshot().getAfterPage())) {
+                Map<String, Feature> features = scenario.getFeatures() == null ? Map.of() : scenario.getFeatures();
+                return new Key(scenario.getHost(), features, List.copyOf(pages.subList(0, i + 1)));
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Restores the snapshot captured for the key into the browser. A snapshot the browser does not
+     * accept, e.g. because its origin now redirects to a login, is dropped and the lookup counts as a
+     * miss, so that the scenario runs its pages and captures a new one.
+     *
+     * @return The restored snapshot, or {@code null} if there is none, it expired or it could not be restored.
+     */
+    BrowserState restore(Key key, WebDriver driver){
+        Entry entry = snapshots.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (Duration.ofNanos(System.nanoTime() - entry.capturedAt).compareTo(ttl) >= 0) {
+            snapshots.remove(key, entry);
+            expired.increment();
+            return null;
+        }
+        try {
+            entry.state.restore(driver);
+        } catch (RuntimeException e) {
+            System.err.println("[BrowserSnapshots] Could not restore browser state after page '" +
+                key.pages().getLast().getName() + "', running the pages again: " + e.getMessage());
+            invalidate(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.state;
+    }
+    
+    /**
+     * Captures the state of the browser under the key, replacing an earlier snapshot. A browser whose
+     * state cannot be captured is logged and leaves the scenario running, which does not depend on it.
+     */
+    void capture(Key key, WebDriver driver){
+        try {
+            snapshots.put(key, new Entry(BrowserState.capture(driver), System.nanoTime()));
+            System.out.println("[BrowserSnapshots] Captured browser state after page '" + key.pages().getLast().getName() + "' of " + key.host());
+        } catch (RuntimeException e) {
+            System.err.println("[BrowserSnapshots] Could not capture browser state after page '" +
+                key.pages().getLast().getName() + "': " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Drops the snapshot of the key, e.g. because it could not be restored.
+     */
+    void invalidate(Key key){
+        snapshots.remove(key);
+    }
+    
+    /**
+     * Drops every snapshot, e.g. because the feature flags they were captured under changed.
+     */
+    void invalidateAll(){
+        if (!snapshots.isEmpty()) {
+            System.out.println("[BrowserSnapshots] Dropping " + snapshots.size() + " browser state snapshots");
+            snapshots.clear();
+        }
+    }
+    
+    private boolean isEnabled(){
+        return ttl != null && ttl.isPositive();
+    }
+    
+    private record Entry(BrowserState state, long capturedAt){
+    }
+}
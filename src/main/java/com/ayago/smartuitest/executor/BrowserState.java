@@ -0,0 +1,117 @@
+package com.ayago.smartuitest.executor;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a scenario has built up in its browser at a given point: cookies, local and session storage,
+ * and the page it is on. Restoring it into another browser lets that browser continue from the same
+ * point without running the pages that led there.
+ * <p>
+ * Only the state of the current origin is captured, which is what the pages of a scenario share.
+ */
+final class BrowserState{
+    
+    private static final String READ_STORAGE_SCRIPT =
+        "var storage = window[arguments[0]], values = {};" +
+            "for (var i = 0; i < storage.length; i++) { var key = storage.key(i); values[key] = storage.getItem(key); }" +
+            "return values;";
+    
+    private static final String WRITE_STORAGE_SCRIPT =
+        "var storage = window[arguments[0]], values = arguments[1];" +
+            "storage.clear();" +
+            "for (var key in values) { storage.setItem(key, values[key]); }";
+    
+    private final String url;
+    private final Set<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    
+    private BrowserState(String url, Set<Cookie> cookies, Map<String, String> localStorage, Map<String, String> sessionStorage){
+        this.url = url;
+        this.cookies = cookies;
+        this.localStorage = localStorage;
+        this.sessionStorage = sessionStorage;
+    }
+    
+    /**
+     * Captures the state of the given browser.
+     *
+     * @param driver The browser, on the page the state is captured at.
+     * @return The captured state.
+     * @throws IllegalStateException If the browser cannot run scripts to read its storage.
+     * @throws org.openqa.selenium.WebDriverException If the browser does not answer.
+     */
+    static BrowserState capture(WebDriver driver){
+        if (!(driver instanceof JavascriptExecutor javascriptExecutor)) {
+            throw new IllegalStateException("Browser state cannot be captured without JavaScript support");
+        }
+        String url = driver.getCurrentUrl();
+        if (url == null) {
+            throw new IllegalStateException("Browser state cannot be captured before a page is loaded");
+        }
+        return new BrowserState(url, Set.copyOf(driver.manage().getCookies()),
+            readStorage(javascriptExecutor, "localStorage"), readStorage(javascriptExecutor, "sessionStorage"));
+    }
+    
+    private static Map<String, String> readStorage(JavascriptExecutor javascriptExecutor, String storage){
+        Map<String, String> values = new LinkedHashMap<>();
+        if (javascriptExecutor.executeScript(READ_STORAGE_SCRIPT, storage) instanceof Map<?, ?> read) {
+            read.forEach((key, value) -> values.put(String.valueOf(key), String.valueOf(value)));
+        }
+        return values;
+    }
+    
+    /**
+     * Replaces the cookies and storage of the given browser with this state. The browser is left on
+     * the root of the captured origin; the captured page has to be loaded afterwards to see the state.
+     *
+     * @param driver The browser to restore the state into, e.g. a fresh one from the pool.
+     * @throws IllegalStateException If loading the origin ended up on another origin, e.g. a login redirect.
+     * @throws org.openqa.selenium.WebDriverException If the browser does not accept the state.
+     */
+    void restore(WebDriver driver){
+        // Cookies and storage can only be set for the origin the browser is on. Its root is loaded rather
+        // than the captured page, which may redirect or repeat its side effects without the state.
+        String origin = origin(url);
+        driver.get(origin + "/");
+        String current = driver.getCurrentUrl();
+        if (current == null || !origin.equals(origin(current))) {
+            throw new IllegalStateException("Browser state of " + origin + " cannot be restored, the browser is on " + current);
+        }
+        driver.manage().deleteAllCookies();
+        cookies.forEach(driver.manage()::addCookie);
+        JavascriptExecutor javascriptExecutor = (JavascriptExecutor) driver;
+        javascriptExecutor.executeScript(WRITE_STORAGE_SCRIPT, "localStorage", localStorage);
+        javascriptExecutor.executeScript(WRITE_STORAGE_SCRIPT, "sessionStorage", sessionStorage);
+    }
+    
+    /**
+     * @return The scheme, host and port of the URL, e.g. {@code https://shop.example.com:8443}.
+     */
+    private static String origin(String url){
+        URI uri = URI.create(url);
+        return (uri.getScheme() + "://" + uri.getRawAuthority()).toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * @return The page the browser was on when the state was captured.
+     */
+    String getUrl(){
+        return url;
+    }
+    
+    @Override
+    public String toString(){
+        return "BrowserState{url='" + url + "', cookies=" + cookies.stream().map(Cookie::getName).toList() +
+            ", localStorage=" + List.copyOf(localStorage.keySet()) + ", sessionStorage=" + List.copyOf(sessionStorage.keySet()) + "}";
+    }
+}
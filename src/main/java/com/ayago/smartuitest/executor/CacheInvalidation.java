@@ -0,0 +1,50 @@
+package com.ayago.smartuitest.executor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Handle of a cache invalidation running in the background. A scenario waits for it only right
+ * before its first page load, so the invalidation overlaps with starting the browser.
+ */
+class CacheInvalidation{
+    
+    /**
+     * Nothing to invalidate, e.g. because no flag changed.
+     */
+    static final CacheInvalidation NONE = new CacheInvalidation(Set.of(), CompletableFuture.completedFuture(null));
+    
+    private final Set<Map<String, String>> contexts;
+    private final CompletableFuture<Void> completion;
+    
+    CacheInvalidation(Set<Map<String, String>> contexts, CompletableFuture<Void> completion){
+        this.contexts = contexts;
+        this.completion = completion;
+    }
+    
+    /**
+     * @return The contexts whose cache entries are invalidated; an empty context stands for the whole cache.
+     */
+    Set<Map<String, String>> getContexts(){
+        return contexts;
+    }
+    
+    boolean isDone(){
+        return completion.isDone();
+    }
+    
+    /**
+     * Waits until the invalidated entries are gone.
+     *
+     * @throws IllegalStateException If the invalidation failed, i.e. the cache may still serve stale entries.
+     */
+    void await() throws InterruptedException{
+        try {
+            completion.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cache invalidation for " + contexts + " failed", e.getCause());
+        }
+    }
+}
@@ -1,12 +1,80 @@
 package com.ayago.smartuitest.executor;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
-@Component
-class CacheManager{
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+@Component
+class CacheManager implements AutoCloseable{
+    
+    private final Timer clearTimer;
+    private final ExecutorService invalidations;
+    
+    CacheManager(MeterRegistry meterRegistry, RunnerProperties runnerProperties){
+        this.invalidations = Executors.newSingleThreadExecutor(
+            RunnerThreads.factory(runnerProperties.getRunner().getThreadModel(), "cache-invalidation"));
+        this.clearTimer = Timer.builder("smartui.cache.clear")
+            .description("Time to clear the application cache")
+            .register(meterRegistry);
+    }
+    
     public void clear(){
-        System.out.println("[CacheManager] Clearing cache...");
-        // Simulate API call to clear cache
+        clearTimer.record(() -> {
+            System.out.println("[CacheManager] Clearing cache...");
+            // Simulate API call to clear cache
+        });
+    }
+    
+    /**
+     * Invalidates the cache entries of the given contexts (e.g. a province and store) in the background,
+     * leaving the rest of the shared cache warm. An empty context means a flag that applies everywhere,
+     * so the whole cache is cleared.
+     *
+     * @param contexts The contexts whose entries are invalidated.
+     * @return A handle to wait for before the invalidated entries are requested.
+     */
+    public CacheInvalidation invalidate(Set<Map<String, String>> contexts){
+        if (contexts.isEmpty()) {
+            return CacheInvalidation.NONE;
+        }
+        Set<Map<String, String>> scope = Set.copyOf(contexts);
+        return new CacheInvalidation(scope, CompletableFuture.runAsync(() -> clear(scope), invalidations));
+    }
+    
+    private void clear(Set<Map<String, String>> contexts){
+        if (contexts.contains(Map.of())) {
+            clear();
+            return;
+        }
+        clearTimer.record(() -> contexts.forEach(context -> {
+            System.out.println("[CacheManager] Clearing cache for context " + context + "...");
+            // Simulate API call to clear the cache of the context
+        }));
+    }
+    
+    /**
+     * Lets pending invalidations finish and stops the invalidation thread. If the calling thread is
+     * interrupted while waiting, pending invalidations are cancelled and the interrupt is kept.
+     */
+    @Override
+    public void close(){
+        invalidations.shutdown();
+        try {
+            if (!invalidations.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("[CacheManager] Gave up waiting for pending cache invalidations.");
+                invalidations.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            System.err.println("[CacheManager] Interrupted while waiting for pending cache invalidations.");
+            invalidations.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 }
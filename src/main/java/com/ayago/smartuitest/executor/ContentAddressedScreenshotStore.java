@@ -0,0 +1,90 @@
+package com.ayago.smartuitest.executor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores every distinct image once, under {@code blobs/<sha-256>.png} in the screenshot folder, and
+ * records each screenshot as a line in {@code manifests/<scenario>.manifest}:
+ * <pre>
+ * Login_page0_20240101_120000.png	blobs/3f5a...e1.png
+ * </pre>
+ * Identical frames, e.g. the page and pre-action screenshot of a page without input, or an unchanged
+ * page across runs, only add a manifest line.
+ */
+class ContentAddressedScreenshotStore implements ScreenshotStore{
+    
+    static final String BLOBS = "blobs";
+    static final String MANIFESTS = "manifests";
+    
+    private final Set<Path> knownBlobs = new HashSet<>();
+    // Not a monitor, so that a virtual thread writing a blob does not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private long deduplicated;
+    
+    @Override
+    public Path write(Screenshot screenshot) throws IOException{
+        lock.lock();
+        try {
+            return writeLocked(screenshot);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private Path writeLocked(Screenshot screenshot) throws IOException{
+        Path blobs = Files.createDirectories(screenshot.getFolder().resolve(BLOBS));
+        Path blob = blobs.resolve(sha256(screenshot.getPng()) + ".png");
+        
+        if (knownBlobs.contains(blob) || Files.exists(blob)) {
+            deduplicated++;
+        } else {
+            // Write under a temporary name first, so that an interrupted write never leaves a blob with the wrong content
+            Path partial = Files.createTempFile(blobs, "partial", ".tmp");
+            ScreenshotStore.writeFully(partial, screenshot.getPng(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.move(partial, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        knownBlobs.add(blob);
+        
+        Path manifests = Files.createDirectories(screenshot.getFolder().resolve(MANIFESTS));
+        Path manifest = manifests.resolve(sanitize(screenshot.getScenario()) + ".manifest");
+        String entry = screenshot.getFileName() + "\t" + BLOBS + "/" + blob.getFileName() + System.lineSeparator();
+        ScreenshotStore.writeFully(manifest, entry.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return blob;
+    }
+    
+    /**
+     * @return Number of screenshots that were identical to an already stored image.
+     */
+    long getDeduplicated(){
+        lock.lock();
+        try {
+            return deduplicated;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static String sha256(byte[] content){
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static String sanitize(String name){
+        return name.replaceAll("[^a-zA-Z0-9.-]", "_");
+    }
+}
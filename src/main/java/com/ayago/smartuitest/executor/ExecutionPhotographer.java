@@ -3,47 +3,196 @@ package com.ayago.smartuitest.executor;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.io.FileHandler;
+import org.openqa.selenium.WebDriverException;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.IOException;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Captures screenshots of the browser. Capturing has to happen on the thread that drives the browser,
+ * but the PNG is handed to a background {@link ScreenshotWriter}, so no disk I/O happens on the
+ * browser interaction path. Call {@link #awaitWrites(CompletableFuture)} with what
+ * {@link #completeScenario(WebDriver, boolean)} returned to wait until the screenshots of one scenario are on
+ * disk, or {@link #flush()} to wait for every queued screenshot.
+ * <p>
+ * Depending on {@link RunnerProperties.ScreenShot.Mode}, screenshots are written immediately, kept in a
+ * per-scenario ring and written only if the scenario fails, or not captured at all until a failure.
+ * Scenarios are told apart by their browser, between {@link #beginScenario(WebDriver, String)} and
+ * {@link #completeScenario(WebDriver, boolean)}.
+ */
 @Component
-public class ExecutionPhotographer{
+public class ExecutionPhotographer implements AutoCloseable{
+    
+    private static final String UNNAMED_SCENARIO = "unnamed";
+    
+    private final ScreenshotWriter screenshotWriter;
+    private final RunnerProperties.ScreenShot.Mode mode;
+    private final int ringSize;
+    private final String folder;
+    private final Map<WebDriver, ScenarioScreenshots> scenarios = new ConcurrentHashMap<>();
+    /**
+     * Tells apart screenshots of the same page name taken in the same second, e.g. by parallel scenarios.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public ExecutionPhotographer(RunnerProperties runnerProperties){
+        RunnerProperties.ScreenShot screenShot = runnerProperties.getScreenShot();
+        ScreenshotStore store = screenShot.getStorage() == RunnerProperties.ScreenShot.Storage.CONTENT_ADDRESSED
+            ? new ContentAddressedScreenshotStore()
+            : new FileScreenshotStore();
+        this.screenshotWriter = new ScreenshotWriter(screenShot.getQueueSize(), screenShot.getBackpressure(), store,
+            RunnerThreads.factory(runnerProperties.getRunner().getThreadModel(), "screenshot-writer"));
+        this.mode = screenShot.getMode();
+        this.ringSize = Math.max(1, screenShot.getRingSize());
+        this.folder = screenShot.getFolder();
+    }
+    
+    /**
+     * Starts collecting the screenshots of a scenario running in the given browser.
+     *
+     * @param driver The browser the scenario runs in.
+     * @param scenarioName Name of the scenario, used for its manifest and its failure screenshot.
+     */
+    public void beginScenario(WebDriver driver, String scenarioName){
+        scenarios.put(driver, new ScenarioScreenshots(scenarioName));
+    }
     
     public void takeScreenshot(WebDriver driver, String scenarioName, int pageNumber, String baseDir) {
-        // Create the specified base directory if it doesn't exist
-        File screenshotsDir = new File(baseDir);
-        if (!screenshotsDir.exists()) {
-            screenshotsDir.mkdirs();
+        if (mode == RunnerProperties.ScreenShot.Mode.FAILURE_ONLY) {
+            return;
         }
+        // Screenshots taken outside of beginScenario/completeScenario are only remembered in ring mode
+        ScenarioScreenshots scenario = mode == RunnerProperties.ScreenShot.Mode.RING_ON_FAILURE
+            ? scenarios.computeIfAbsent(driver, key -> new ScenarioScreenshots(UNNAMED_SCENARIO))
+            : scenarios.getOrDefault(driver, new ScenarioScreenshots(UNNAMED_SCENARIO));
+        byte[] png = capture(driver, scenarioName);
+        if (png == null) {
+            return;
+        }
+        Screenshot screenshot = new Screenshot(Path.of(baseDir).toAbsolutePath(), scenario.name,
+            fileName(String.format("%s_page%d", scenarioName, pageNumber)), png);
+        if (mode == RunnerProperties.ScreenShot.Mode.ALWAYS) {
+            scenario.writes.add(screenshotWriter.submit(screenshot));
+            return;
+        }
+        if (scenario.ring.size() == ringSize) {
+            scenario.ring.removeFirst();
+        }
+        scenario.ring.addLast(screenshot);
+    }
+    
+    /**
+     * Ends the scenario running in the given browser. If it failed, the ring of recent screenshots
+     * is written, or, in {@link RunnerProperties.ScreenShot.Mode#FAILURE_ONLY}, the browser is captured
+     * in its failed state. Must be called before the browser is reset for the next scenario.
+     *
+     * @param driver The browser the scenario ran in.
+     * @param failed Whether the scenario failed.
+     * @return Completes once every screenshot of the scenario has been written or dropped.
+     */
+    public CompletableFuture<Void> completeScenario(WebDriver driver, boolean failed){
+        ScenarioScreenshots scenario = scenarios.remove(driver);
+        if (scenario == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (failed) {
+            writeFailure(driver, scenario);
+        }
+        return CompletableFuture.allOf(scenario.writes.toArray(CompletableFuture[]::new));
+    }
+    
+    /**
+     * Waits until the screenshots of a completed scenario have been written, without waiting for
+     * those of scenarios still running.
+     *
+     * @param screenshots What {@link #completeScenario(WebDriver, boolean)} returned for the scenario.
+     */
+    public void awaitWrites(CompletableFuture<Void> screenshots) throws InterruptedException{
+        try {
+            screenshots.get();
+        } catch (ExecutionException e) {
+            // Writes complete normally whether or not the file could be stored
+            throw new IllegalStateException("Screenshot write failed unexpectedly", e.getCause());
+        }
+    }
+    
+    private void writeFailure(WebDriver driver, ScenarioScreenshots scenario){
+        if (!scenario.ring.isEmpty()) {
+            System.out.println("ExecutionPhotographer: Scenario " + scenario.name + " failed, writing its last " + scenario.ring.size() + " screenshots.");
+            scenario.ring.forEach(screenshot -> scenario.writes.add(screenshotWriter.submit(screenshot)));
+        }
+        if (mode == RunnerProperties.ScreenShot.Mode.FAILURE_ONLY && folder != null) {
+            try {
+                byte[] png = capture(driver, scenario.name + "_failure");
+                if (png != null) {
+                    scenario.writes.add(screenshotWriter.submit(new Screenshot(Path.of(folder).toAbsolutePath(), scenario.name,
+                        fileName(scenario.name + "_failure"), png)));
+                }
+            } catch (WebDriverException e) {
+                // The browser may be the reason the scenario failed; the original failure is what matters
+                System.err.println("ExecutionPhotographer: Could not capture failure screenshot for " + scenario.name + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Waits until every screenshot taken so far has been written.
+     */
+    public void flush() throws InterruptedException{
+        screenshotWriter.flush();
+    }
+    
+    @Override
+    public void close(){
+        screenshotWriter.close();
+    }
+    
+    private String fileName(String name){
+        // Sanitize name for filename (replace spaces and special chars)
+        String sanitizedName = name.replaceAll("[^a-zA-Z0-9.-]", "_");
         
-        // Sanitize scenarioName for filename (replace spaces and special chars)
-        String sanitizedScenarioName = scenarioName.replaceAll("[^a-zA-Z0-9.-]", "_");
-        
-        // Generate a timestamp for unique filenames
+        // Generate a timestamp and a sequence number for unique filenames
         String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
         
-        // Construct the filename: scenarioName_pageX_timestamp.png
-        String fileName = String.format("%s_page%d_%s.png", sanitizedScenarioName, pageNumber, timestamp);
-        String fullPath = screenshotsDir.getAbsolutePath() + File.separator + fileName;
-        
+        // Construct the filename: scenarioName_pageX_timestamp_sequence.png
+        return String.format("%s_%s_%06d.png", sanitizedName, timestamp, sequence.incrementAndGet());
+    }
+    
+    private byte[] capture(WebDriver driver, String name){
+        ScreenshotCaptureEvent event = new ScreenshotCaptureEvent();
+        event.begin();
         try {
             TakesScreenshot ts = (TakesScreenshot) driver;
-            File sourceFile = ts.getScreenshotAs(OutputType.FILE);
-            File destinationFile = new File(fullPath);
-            FileHandler.copy(sourceFile, destinationFile);
-            System.out.println("Screenshot saved to: " + destinationFile.getAbsolutePath());
-            
-        } catch (IOException e) {
-            System.err.println("Failed to save screenshot: " + e.getMessage());
-            e.printStackTrace();
+            byte[] png = ts.getScreenshotAs(OutputType.BYTES);
+            event.name = name;
+            event.size = png.length;
+            event.commit();
+            return png;
         } catch (ClassCastException e) {
             System.err.println("WebDriver cannot be cast to TakesScreenshot. This driver does not support screenshots.");
             e.printStackTrace();
         }
+        return null;
+    }
+    
+    private final class ScenarioScreenshots{
+        private final String name;
+        private final Deque<Screenshot> ring = new ArrayDeque<>(ringSize);
+        private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+        
+        private ScenarioScreenshots(String name){
+            this.name = name;
+        }
     }
 }
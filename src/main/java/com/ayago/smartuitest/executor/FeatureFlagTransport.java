@@ -0,0 +1,19 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+
+import java.util.Map;
+
+/**
+ * Sends feature flag changes to the feature manager. Provide a different bean to talk to a real service.
+ */
+interface FeatureFlagTransport{
+    
+    /**
+     * Sets the given flags in one request. Flags not in the batch keep their current state.
+     *
+     * @param changes The flags to set, keyed by flag name.
+     * @throws RuntimeException If the request failed; it is unknown which of the flags were set.
+     */
+    void setFlags(Map<String, Feature> changes);
+}
@@ -0,0 +1,67 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reorders scenarios so that those with the same feature flag configuration run one after the other.
+ * Applying flags and clearing the cache are slow calls against a shared environment, and with this
+ * order they are needed once per distinct configuration instead of once per scenario.
+ * <p>
+ * Scenarios are still handed out as soon as they are ready: the configuration of the first scenario
+ * starts the first group, and every later scenario with that configuration joins it. Scenarios with
+ * other configurations are held back until every scenario has been discovered and the current group
+ * is done, then the next group starts with the configuration seen first. Invalid files never start a
+ * browser and are handed out right away.
+ */
+class FeatureGroups implements ScenarioSource{
+    
+    private final ScenarioSource scenarios;
+    private final Map<Map<String, Feature>, Deque<ParsedScenario>> pending = new LinkedHashMap<>();
+    private Map<String, Feature> current;
+    private boolean exhausted;
+    
+    FeatureGroups(ScenarioSource scenarios){
+        this.scenarios = scenarios;
+    }
+    
+    @Override
+    public ParsedScenario next() throws IOException, InterruptedException{
+        while (true) {
+            Deque<ParsedScenario> currentGroup = current == null ? null : pending.get(current);
+            if (currentGroup != null && !currentGroup.isEmpty()) {
+                return currentGroup.poll();
+            }
+            if (!exhausted) {
+                // Wait for more scenarios; one of them may still belong to the current group
+                ParsedScenario scenario = scenarios.next();
+                if (scenario == null) {
+                    exhausted = true;
+                } else if (!scenario.isValid()) {
+                    return scenario;
+                } else {
+                    if (current == null) {
+                        current = scenario.getFeatures();
+                    }
+                    pending.computeIfAbsent(scenario.getFeatures(), features -> new ArrayDeque<>()).add(scenario);
+                }
+                continue;
+            }
+            // Every scenario is known and the current group is done; move on to the next one
+            if (current != null) {
+                pending.remove(current);
+            }
+            Iterator<Map<String, Feature>> remaining = pending.keySet().iterator();
+            if (!remaining.hasNext()) {
+                return null;
+            }
+            current = remaining.next();
+        }
+    }
+}
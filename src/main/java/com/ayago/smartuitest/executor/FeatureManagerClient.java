@@ -2,26 +2,110 @@ package com.ayago.smartuitest.executor;
 
 import com.ayago.smartuitest.testscenario.TestScenario;
 import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Applies the feature flags of a scenario. The client remembers the state it last set for every flag,
+ * and sends only the flags that differ from it, all in one request. The cache is invalidated only if a
+ * flag changed, only for the contexts of the changed flags, and in the background. Browser state
+ * snapshots are dropped on every change as well.
+ * <p>
+ * The remembered state assumes nobody else changes the flags during the run. A flag whose request
+ * failed is forgotten, so that it is sent again the next time.
+ */
 @Component
 class FeatureManagerClient {
     private final CacheManager cacheManager;
+    private final BrowserSnapshots snapshots;
+    private final FeatureFlagTransport transport;
+    private final Map<String, Feature> knownFlags = new HashMap<>();
+    // Not a monitor, so that a virtual thread waiting for the flag request does not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Timer applyTimer;
+    private final Counter flagsApplied;
+    private final Counter flagsUnchanged;
     
-    public FeatureManagerClient(CacheManager cacheManager){
+    public FeatureManagerClient(CacheManager cacheManager, BrowserSnapshots snapshots, FeatureFlagTransport transport,
+                                MeterRegistry meterRegistry){
         this.cacheManager = cacheManager;
+        this.snapshots = snapshots;
+        this.transport = transport;
+        this.applyTimer = Timer.builder("smartui.feature.flags.apply")
+            .description("Time to apply a scenario's feature flags, without the background cache invalidation")
+            .register(meterRegistry);
+        this.flagsApplied = Counter.builder("smartui.feature.flags.applied")
+            .description("Number of feature flags set")
+            .register(meterRegistry);
+        this.flagsUnchanged = Counter.builder("smartui.feature.flags.unchanged")
+            .description("Number of feature flags not sent because they already had the requested state")
+            .register(meterRegistry);
     }
     
-
-    public void applyFeatureFlags(Map<String, TestScenario.Feature> flags){
+    
+    /**
+     * Sets the flags that differ from their last known state.
+     *
+     * @param flags The flags of the scenario, keyed by flag name.
+     * @return The invalidation of the cache entries affected by the changed flags, to be awaited
+     * before the first page is loaded.
+     */
+    public CacheInvalidation applyFeatureFlags(Map<String, TestScenario.Feature> flags){
+        lock.lock();
+        try {
+            return applyTimer.record(() -> apply(flags));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private CacheInvalidation apply(Map<String, TestScenario.Feature> flags){
+        Map<String, Feature> changes = new LinkedHashMap<>();
+        Set<Map<String, String>> affectedContexts = new LinkedHashSet<>();
         for (Map.Entry<String, Feature> entry : flags.entrySet()){
             Feature flag = entry.getValue();
-            System.out.println(
-                "[FeatureManager] Setting " + entry.getKey() + " to " + flag.isEnable() + " with context " + flag.getContext());
-            // Simulate API call to set feature entry
+            Feature known = knownFlags.get(entry.getKey());
+            if (flag.equals(known)) {
+                continue;
+            }
+            changes.put(entry.getKey(), flag);
+            affectedContexts.add(contextOf(flag));
+            if (known != null) {
+                // Moving a flag to another context changes what the old context serves as well
+                affectedContexts.add(contextOf(known));
+            }
         }
-        cacheManager.clear();
+        flagsUnchanged.increment(flags.size() - changes.size());
+        if (changes.isEmpty()) {
+            System.out.println("[FeatureManager] All " + flags.size() + " flags already set, nothing to apply");
+            return CacheInvalidation.NONE;
+        }
+        
+        // Also if the request fails, since some of the flags may have been set
+        snapshots.invalidateAll();
+        try {
+            transport.setFlags(changes);
+        } catch (RuntimeException e) {
+            // Some of the flags may have been set; send all of them again next time
+            changes.keySet().forEach(knownFlags::remove);
+            throw e;
+        }
+        knownFlags.putAll(changes);
+        flagsApplied.increment(changes.size());
+        return cacheManager.invalidate(affectedContexts);
+    }
+    
+    private static Map<String, String> contextOf(Feature flag){
+        return Objects.requireNonNullElse(flag.getContext(), Map.of());
     }
 }
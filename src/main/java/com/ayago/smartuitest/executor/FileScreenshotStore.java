@@ -0,0 +1,22 @@
+package com.ayago.smartuitest.executor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes every screenshot to its own file in the screenshot folder. File names are unique within a run,
+ * so an existing file is never overwritten.
+ */
+class FileScreenshotStore implements ScreenshotStore{
+    
+    @Override
+    public Path write(Screenshot screenshot) throws IOException{
+        Files.createDirectories(screenshot.getFolder());
+        Path target = screenshot.getFolder().resolve(screenshot.getFileName());
+        ScreenshotStore.writeFully(target, screenshot.getPng(),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        return target;
+    }
+}
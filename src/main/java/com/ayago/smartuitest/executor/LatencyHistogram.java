@@ -0,0 +1,86 @@
+package com.ayago.smartuitest.executor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-bucket latency histogram that can be updated concurrently without locking.
+ * Percentiles are reported as the upper bound of the bucket they fall into.
+ */
+class LatencyHistogram{
+    
+    /**
+     * Upper bounds of the buckets in milliseconds; one more bucket collects everything above the last bound.
+     */
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000};
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    
+    void record(long nanos){
+        long millis = nanos / 1_000_000;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+    
+    long getCount(){
+        return count.sum();
+    }
+    
+    double getTotalMillis(){
+        return totalNanos.sum() / 1_000_000.0;
+    }
+    
+    double getMeanMillis(){
+        long samples = count.sum();
+        return samples == 0 ? 0 : getTotalMillis() / samples;
+    }
+    
+    double getMaxMillis(){
+        return maxNanos.get() / 1_000_000.0;
+    }
+    
+    /**
+     * @param percentile Between 0 and 100.
+     * @return The upper bucket bound below which the given share of samples fall, or the maximum if
+     * they fall in the overflow bucket.
+     */
+    double getPercentileMillis(double percentile){
+        long samples = count.sum();
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(samples * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS_MILLIS.length; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MILLIS[bucket], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+    
+    /**
+     * @return Sample count per bucket, keyed by {@code "<N ms"} and {@code ">=N ms"} for the overflow bucket.
+     */
+    Map<String, Long> getBuckets(){
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < BUCKET_BOUNDS_MILLIS.length; bucket++) {
+            counts.put("<" + BUCKET_BOUNDS_MILLIS[bucket] + " ms", buckets.get(bucket));
+        }
+        counts.put(">=" + BUCKET_BOUNDS_MILLIS[BUCKET_BOUNDS_MILLIS.length - 1] + " ms", buckets.get(BUCKET_BOUNDS_MILLIS.length));
+        return counts;
+    }
+}
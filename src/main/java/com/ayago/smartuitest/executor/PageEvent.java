@@ -0,0 +1,28 @@
+package com.ayago.smartuitest.executor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one page of a scenario: its screenshots, the verification of its expected values and its action.
+ */
+@Name("com.ayago.smartuitest.Page")
+@Label("Page")
+@Category({"Smart UI Test", "Runner"})
+@Description("Execution of one page of a scenario")
+@StackTrace(false)
+final class PageEvent extends Event{
+    
+    @Label("Scenario")
+    String scenario;
+    
+    @Label("Page")
+    String page;
+    
+    @Label("Page Index")
+    int pageIndex;
+}
@@ -0,0 +1,83 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario;
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A scenario file as handed out by {@link ScenarioDiscovery}: either its parsed scenario or the error
+ * that made it invalid. Invalid files are passed on as well, so that they are reported with the
+ * other results of the run.
+ */
+class ParsedScenario{
+    
+    private final int index;
+    private final File scenarioFile;
+    private final TestScenario scenario;
+    private final Exception failure;
+    
+    private ParsedScenario(int index, File scenarioFile, TestScenario scenario, Exception failure){
+        this.index = index;
+        this.scenarioFile = scenarioFile;
+        this.scenario = scenario;
+        this.failure = failure;
+    }
+    
+    static ParsedScenario valid(int index, File scenarioFile, TestScenario scenario){
+        return new ParsedScenario(index, scenarioFile, scenario, null);
+    }
+    
+    static ParsedScenario invalid(int index, File scenarioFile, Exception failure){
+        return new ParsedScenario(index, scenarioFile, null, failure);
+    }
+    
+    /**
+     * @return The position of the file in the directory walk, so that results can be reported in
+     * a stable order although files are parsed concurrently.
+     */
+    int getIndex(){
+        return index;
+    }
+    
+    File getScenarioFile(){
+        return scenarioFile;
+    }
+    
+    /**
+     * @return The parsed scenario.
+     * @throws IOException If the file could not be read or parsed.
+     */
+    TestScenario getScenario() throws IOException{
+        if (failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure != null) {
+            throw new IOException("Failed to parse " + scenarioFile, failure);
+        }
+        return scenario;
+    }
+    
+    /**
+     * @return The feature flags the scenario runs with; empty if it declares none or is invalid.
+     */
+    Map<String, Feature> getFeatures(){
+        return scenario == null || scenario.getFeatures() == null ? Map.of() : scenario.getFeatures();
+    }
+    
+    /**
+     * @return The error that made the file invalid, or {@code null} if it was parsed.
+     */
+    Exception getFailure(){
+        return failure;
+    }
+    
+    boolean isValid(){
+        return failure == null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ayago.smartuitest.executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+/**
+ * Scenario and page timers of the runner, and the export of every recorded meter as a Prometheus
+ * scrape file at the end of the run. CI agents can pick the file up with a textfile collector,
+ * so timings can be trended across runs.
+ */
+@Component
+class RunMetrics{
+    
+    static final String SCENARIO = "smartui.scenario";
+    static final String PAGE = "smartui.page";
+    static final String SETUP = "smartui.scenario.setup";
+    
+    private final MeterRegistry meterRegistry;
+    private final String prometheusFile;
+    
+    RunMetrics(MeterRegistry meterRegistry, RunnerProperties runnerProperties){
+        this.meterRegistry = meterRegistry;
+        this.prometheusFile = runnerProperties.getMetrics().getPrometheusFile();
+    }
+    
+    void scenarioCompleted(String scenario, boolean passed, Duration duration){
+        Timer.builder(SCENARIO)
+            .description("Total time of a scenario, from browser lease to release")
+            .tag("scenario", scenario)
+            .tag("outcome", passed ? "passed" : "failed")
+            .register(meterRegistry)
+            .record(duration);
+    }
+    
+    void setupCompleted(String scenario, Duration duration){
+        Timer.builder(SETUP)
+            .description("Time from the browser lease until the scenario is ready to load its host")
+            .tag("scenario", scenario)
+            .register(meterRegistry)
+            .record(duration);
+    }
+    
+    void pageCompleted(String scenario, String page, Duration duration){
+        Timer.builder(PAGE)
+            .description("Time spent on a page: screenshots, verification and its action")
+            .tag("scenario", scenario)
+            .tag("page", page)
+            .register(meterRegistry)
+            .record(duration);
+    }
+    
+    /**
+     * Writes all meters in the Prometheus text format to the configured file. Does nothing if no file
+     * is configured or the registry is not a Prometheus registry.
+     */
+    void export(){
+        if (prometheusFile == null || prometheusFile.isBlank()
+            || !(meterRegistry instanceof PrometheusMeterRegistry prometheusMeterRegistry)) {
+            return;
+        }
+        Path target = Path.of(prometheusFile).toAbsolutePath();
+        try {
+            Files.createDirectories(target.getParent());
+            // Write next to the target and move, so that a collector never reads a half-written file
+            Path partial = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.writeString(partial, prometheusMeterRegistry.scrape());
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Metrics written to: " + target);
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics: " + e.getMessage());
+        }
+    }
+}
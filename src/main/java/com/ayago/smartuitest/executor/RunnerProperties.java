@@ -3,19 +3,76 @@ package com.ayago.smartuitest.executor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties
 public class RunnerProperties{
     
     private final ScreenShot screenShot = new ScreenShot();
     
+    private final Runner runner = new Runner();
+    
+    private final DriverPool driverPool = new DriverPool();
+    
+    private final Instrumentation instrumentation = new Instrumentation();
+    
+    private final Metrics metrics = new Metrics();
+    
+    private final Snapshots snapshots = new Snapshots();
+    
     public ScreenShot getScreenShot(){
         return screenShot;
     }
     
+    public Runner getRunner(){
+        return runner;
+    }
+    
+    public DriverPool getDriverPool(){
+        return driverPool;
+    }
+    
+    public Instrumentation getInstrumentation(){
+        return instrumentation;
+    }
+    
+    public Metrics getMetrics(){
+        return metrics;
+    }
+    
+    public Snapshots getSnapshots(){
+        return snapshots;
+    }
+    
     public static class ScreenShot{
         private String folder;
         
+        /**
+         * Number of captured screenshots that may wait for the background writer.
+         */
+        private int queueSize = 64;
+        
+        /**
+         * What a capture does when the writer queue is full.
+         */
+        private Backpressure backpressure = Backpressure.BLOCK;
+        
+        /**
+         * When screenshots are written to {@link #folder}.
+         */
+        private Mode mode = Mode.ALWAYS;
+        
+        /**
+         * Number of most recent screenshots kept in memory per scenario in {@link Mode#RING_ON_FAILURE}.
+         */
+        private int ringSize = 10;
+        
+        /**
+         * How screenshots are laid out in {@link #folder}.
+         */
+        private Storage storage = Storage.FILES;
+        
         public String getFolder(){
             return folder;
         }
@@ -23,5 +80,287 @@ public class RunnerProperties{
         public void setFolder(String folder){
             this.folder = folder;
         }
+        
+        public int getQueueSize(){
+            return queueSize;
+        }
+        
+        public void setQueueSize(int queueSize){
+            this.queueSize = queueSize;
+        }
+        
+        public Backpressure getBackpressure(){
+            return backpressure;
+        }
+        
+        public void setBackpressure(Backpressure backpressure){
+            this.backpressure = backpressure;
+        }
+        
+        public Mode getMode(){
+            return mode;
+        }
+        
+        public void setMode(Mode mode){
+            this.mode = mode;
+        }
+        
+        public int getRingSize(){
+            return ringSize;
+        }
+        
+        public void setRingSize(int ringSize){
+            this.ringSize = ringSize;
+        }
+        
+        public Storage getStorage(){
+            return storage;
+        }
+        
+        public void setStorage(Storage storage){
+            this.storage = storage;
+        }
+        
+        public enum Mode{
+            /** Every screenshot is written. */
+            ALWAYS,
+            /** The last {@code ringSize} screenshots of a scenario are kept in memory and written only if it fails. */
+            RING_ON_FAILURE,
+            /** Nothing is captured while the scenario runs; a single screenshot is taken when it fails. */
+            FAILURE_ONLY
+        }
+        
+        public enum Storage{
+            /** One PNG file per screenshot. */
+            FILES,
+            /**
+             * Each distinct image is stored once as {@code blobs/<sha-256>.png}; every screenshot adds a line
+             * to {@code manifests/<scenario>.manifest} that points to its blob.
+             */
+            CONTENT_ADDRESSED
+        }
+        
+        public enum Backpressure{
+            /** Wait for room in the queue; no screenshot is lost. */
+            BLOCK,
+            /** Discard the screenshot and log it; the scenario never waits for the disk. */
+            DROP,
+            /** Write the screenshot on the capturing thread. */
+            CALLER_RUNS
+        }
+    }
+    
+    public static class Runner{
+        /**
+         * Number of scenarios executed at the same time. Each running scenario holds its own browser,
+         * so this is also the upper bound of live WebDriver sessions. A value of 1 runs the scenarios
+         * one after the other on the calling thread.
+         */
+        private int parallelism = 1;
+        
+        /**
+         * Which threads run the scenarios and their background tasks.
+         */
+        private ThreadModel threadModel = ThreadModel.PLATFORM;
+        
+        /**
+         * Starts the browsers without a window, e.g. on CI agents or for benchmark runs.
+         */
+        private boolean headless = false;
+        
+        /**
+         * Number of threads parsing scenario files while the directory is still being walked.
+         * 0 uses one thread per available processor.
+         */
+        private int parseThreads = 0;
+        
+        /**
+         * Whether scenarios start as soon as they are parsed, or only once every file is valid.
+         */
+        private Validation validation = Validation.STREAMING;
+        
+        /**
+         * Merges the scenarios of a host and feature configuration by their common first pages, and runs
+         * every shared prefix once. The scenarios that continue differently each get a browser with the
+         * cookies, storage and page of the prefix restored. Needs every file to be parsed before the first
+         * scenario starts.
+         */
+        private boolean sharedPrefixes = false;
+        
+        public int getParallelism(){
+            return parallelism;
+        }
+        
+        public void setParallelism(int parallelism){
+            this.parallelism = parallelism;
+        }
+        
+        public ThreadModel getThreadModel(){
+            return threadModel;
+        }
+        
+        public void setThreadModel(ThreadModel threadModel){
+            this.threadModel = threadModel;
+        }
+        
+        public boolean isHeadless(){
+            return headless;
+        }
+        
+        public void setHeadless(boolean headless){
+            this.headless = headless;
+        }
+        
+        public int getParseThreads(){
+            return parseThreads;
+        }
+        
+        public void setParseThreads(int parseThreads){
+            this.parseThreads = parseThreads;
+        }
+        
+        public Validation getValidation(){
+            return validation;
+        }
+        
+        public void setValidation(Validation validation){
+            this.validation = validation;
+        }
+        
+        public boolean isSharedPrefixes(){
+            return sharedPrefixes;
+        }
+        
+        public void setSharedPrefixes(boolean sharedPrefixes){
+            this.sharedPrefixes = sharedPrefixes;
+        }
+        
+        public enum ThreadModel{
+            /**
+             * Scenarios run on a pool of {@code parallelism} platform threads (on the calling thread if it is 1),
+             * background tasks on dedicated platform threads.
+             */
+            PLATFORM,
+            /**
+             * Every scenario and every background task (screenshot writes, flag calls, cache invalidation) gets
+             * its own virtual thread. Only the {@code parallelism} browser sessions limit how many scenarios
+             * run at the same time, so a large value (e.g. against a local grid) costs no platform threads.
+             */
+            VIRTUAL
+        }
+        
+        public enum Validation{
+            /**
+             * Each scenario starts as soon as it is parsed; an invalid file fails only its own scenario.
+             * The validation report is printed once every file has been parsed.
+             */
+            STREAMING,
+            /**
+             * Every file is parsed before the first browser starts; the run is aborted if any of them is invalid.
+             */
+            UP_FRONT
+        }
+    }
+    
+    public static class DriverPool{
+        /**
+         * Maximum number of live browsers, leased and idle together. 0 sizes the pool to
+         * {@code runner.parallelism}.
+         */
+        private int maxSize = 0;
+        
+        /**
+         * Number of scenarios a browser serves before it is quit and replaced with a fresh one.
+         */
+        private int maxUsesPerDriver = 25;
+        
+        /**
+         * How long a scenario waits for a free browser before giving up.
+         */
+        private Duration leaseTimeout = Duration.ofMinutes(5);
+        
+        public int getMaxSize(){
+            return maxSize;
+        }
+        
+        public void setMaxSize(int maxSize){
+            this.maxSize = maxSize;
+        }
+        
+        public int getMaxUsesPerDriver(){
+            return maxUsesPerDriver;
+        }
+        
+        public void setMaxUsesPerDriver(int maxUsesPerDriver){
+            this.maxUsesPerDriver = maxUsesPerDriver;
+        }
+        
+        public Duration getLeaseTimeout(){
+            return leaseTimeout;
+        }
+        
+        public void setLeaseTimeout(Duration leaseTimeout){
+            this.leaseTimeout = leaseTimeout;
+        }
+    }
+    
+    public static class Instrumentation{
+        /**
+         * Records every WebDriver command with its latency and the page and action that issued it.
+         */
+        private boolean enabled = true;
+        
+        /**
+         * JSON file the command metrics are written to at the end of the run. Empty disables the dump.
+         */
+        private String dumpFile = "target/webdriver-commands.json";
+        
+        public boolean isEnabled(){
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled){
+            this.enabled = enabled;
+        }
+        
+        public String getDumpFile(){
+            return dumpFile;
+        }
+        
+        public void setDumpFile(String dumpFile){
+            this.dumpFile = dumpFile;
+        }
+    }
+    
+    public static class Metrics{
+        /**
+         * File the Micrometer meters are written to, in the Prometheus text format, at the end of the run.
+         * Empty disables the export.
+         */
+        private String prometheusFile = "target/metrics.prom";
+        
+        public String getPrometheusFile(){
+            return prometheusFile;
+        }
+        
+        public void setPrometheusFile(String prometheusFile){
+            this.prometheusFile = prometheusFile;
+        }
+    }
+    
+    public static class Snapshots{
+        /**
+         * How long a browser state snapshot is restored into later scenarios after it was captured, e.g.
+         * shorter than the session timeout of the application. 0 disables snapshots.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+        
+        public Duration getTtl(){
+            return ttl;
+        }
+        
+        public void setTtl(Duration ttl){
+            this.ttl = ttl;
+        }
     }
 }
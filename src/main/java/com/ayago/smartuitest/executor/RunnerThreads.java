@@ -0,0 +1,25 @@
+package com.ayago.smartuitest.executor;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the runner's background tasks according to the configured
+ * {@link RunnerProperties.Runner.ThreadModel}.
+ */
+final class RunnerThreads{
+    
+    private RunnerThreads(){
+    }
+    
+    /**
+     * @param threadModel Whether to create platform or virtual threads.
+     * @param name Name of the threads; they are numbered from 1.
+     * @return A factory for daemon platform threads or for virtual threads.
+     */
+    static ThreadFactory factory(RunnerProperties.Runner.ThreadModel threadModel, String name){
+        if (threadModel == RunnerProperties.Runner.ThreadModel.VIRTUAL) {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+        return Thread.ofPlatform().name(name + "-", 1).daemon().factory();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.json.JsonTestScenarioParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Walks a directory for scenario files and parses them in the background, so that the first scenario
+ * can start while the rest of the tree is still being read.
+ * <p>
+ * The walk runs on its own thread and hands every JSON file to a pool of parser threads as soon as
+ * it is found. Parsed scenarios, and files that failed to parse, are queued in the order they complete
+ * and taken with {@link #next()}. Once every file is parsed, a validation report lists the invalid
+ * files, long before the scenarios queued ahead of them have run.
+ */
+class ScenarioDiscovery implements ScenarioSource, AutoCloseable{
+    
+    /**
+     * Marks the end of the queue.
+     */
+    private static final ParsedScenario END = ParsedScenario.invalid(-1, null, null);
+    
+    private final JsonTestScenarioParser parser;
+    private final ExecutorService parsePool;
+    private final BlockingQueue<ParsedScenario> parsed = new LinkedBlockingQueue<>();
+    private final Thread walker;
+    private volatile IOException walkFailure;
+    private boolean exhausted;
+    
+    /**
+     * Starts discovering the scenarios of a directory.
+     *
+     * @param parser The parser for the scenario files; called from several threads.
+     * @param directory The directory to walk, including its subdirectories.
+     * @param parseThreads Number of threads parsing files; 0 uses one per available processor.
+     */
+    ScenarioDiscovery(JsonTestScenarioParser parser, Path directory, int parseThreads){
+        this.parser = parser;
+        int threads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.parsePool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "scenario-parser-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.walker = new Thread(() -> discover(directory), "scenario-discovery");
+        walker.setDaemon(true);
+        walker.start();
+    }
+    
+    /**
+     * Takes the next parsed scenario, waiting until one is ready.
+     *
+     * @return The next scenario, or {@code null} once every discovered file has been handed out.
+     * @throws IOException If the directory could not be walked.
+     */
+    @Override
+    public ParsedScenario next() throws IOException, InterruptedException{
+        if (exhausted) {
+            return null;
+        }
+        ParsedScenario next = parsed.take();
+        if (next != END) {
+            return next;
+        }
+        exhausted = true;
+        if (walkFailure != null) {
+            throw walkFailure;
+        }
+        return null;
+    }
+    
+    private void discover(Path directory){
+        long start = System.nanoTime();
+        List<Future<ParsedScenario>> parses = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            Iterator<Path> jsonFiles = paths
+                .filter(Files::isRegularFile)
+                .filter(p -> p.toString().endsWith(".json"))
+                .iterator();
+            while (jsonFiles.hasNext()) {
+                int index = parses.size();
+                File jsonFile = jsonFiles.next().toFile();
+                parses.add(parsePool.submit(() -> parse(index, jsonFile)));
+            }
+        } catch (IOException e) {
+            walkFailure = e;
+        } catch (UncheckedIOException e) {
+            // Raised by the stream for a directory that became unreadable during the walk
+            walkFailure = e.getCause();
+        } catch (RejectedExecutionException e) {
+            // Closed while still walking
+            return;
+        }
+        
+        try {
+            List<ParsedScenario> scenarios = new ArrayList<>();
+            for (Future<ParsedScenario> parse : parses) {
+                scenarios.add(parse.get());
+            }
+            if (!scenarios.isEmpty()) {
+                report(scenarios, Duration.ofNanos(System.nanoTime() - start));
+            }
+        } catch (InterruptedException e) {
+            // Closed before every file was parsed; nobody is waiting for the rest
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            // parse only lets fatal errors (e.g. StackOverflowError) escape
+            walkFailure = new IOException("Scenario parser terminated unexpectedly", e.getCause());
+        }
+        parsed.add(END);
+    }
+    
+    private ParsedScenario parse(int index, File jsonFile){
+        ParsedScenario scenario;
+        try {
+            scenario = ParsedScenario.valid(index, jsonFile, parser.parse(jsonFile));
+        } catch (Exception e) {
+            scenario = ParsedScenario.invalid(index, jsonFile, e);
+        }
+        parsed.add(scenario);
+        return scenario;
+    }
+    
+    private static void report(List<ParsedScenario> scenarios, Duration elapsed){
+        List<ParsedScenario> invalid = scenarios.stream().filter(scenario -> !scenario.isValid()).toList();
+        if (invalid.isEmpty()) {
+            System.out.println("Scenario validation: " + scenarios.size() + " files parsed in " + elapsed.toMillis() + " ms, all valid.");
+            return;
+        }
+        System.err.println("Scenario validation: " + scenarios.size() + " files parsed in " + elapsed.toMillis() + " ms, " +
+            invalid.size() + " invalid:");
+        invalid.forEach(scenario ->
+            System.err.println("  " + scenario.getScenarioFile().getAbsolutePath() + " - " + scenario.getFailure().getMessage()));
+    }
+    
+    /**
+     * Stops walking and parsing; files not parsed yet are dropped.
+     */
+    @Override
+    public void close(){
+        walker.interrupt();
+        parsePool.shutdownNow();
+    }
+}
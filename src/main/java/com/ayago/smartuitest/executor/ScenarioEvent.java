@@ -0,0 +1,25 @@
+package com.ayago.smartuitest.executor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning a whole scenario, from browser lease to release.
+ */
+@Name("com.ayago.smartuitest.Scenario")
+@Label("Scenario")
+@Category({"Smart UI Test", "Runner"})
+@Description("Execution of one scenario file")
+@StackTrace(false)
+final class ScenarioEvent extends Event{
+    
+    @Label("Scenario")
+    String scenario;
+    
+    @Label("Passed")
+    boolean passed;
+}
@@ -0,0 +1,58 @@
+package com.ayago.smartuitest.executor;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * Outcome of a single test scenario run. Results are collected per scenario so that a failing
+ * scenario is reported without stopping the remaining ones.
+ */
+class ScenarioResult{
+    
+    private final File scenarioFile;
+    private final Duration duration;
+    private final Throwable failure;
+    
+    private ScenarioResult(File scenarioFile, Duration duration, Throwable failure){
+        this.scenarioFile = scenarioFile;
+        this.duration = duration;
+        this.failure = failure;
+    }
+    
+    static ScenarioResult passed(File scenarioFile, Duration duration){
+        return new ScenarioResult(scenarioFile, duration, null);
+    }
+    
+    static ScenarioResult failed(File scenarioFile, Duration duration, Throwable failure){
+        return new ScenarioResult(scenarioFile, duration, failure);
+    }
+    
+    File getScenarioFile(){
+        return scenarioFile;
+    }
+    
+    Duration getDuration(){
+        return duration;
+    }
+    
+    /**
+     * @return The error that stopped the scenario, or {@code null} if it passed.
+     */
+    Throwable getFailure(){
+        return failure;
+    }
+    
+    boolean isPassed(){
+        return failure == null;
+    }
+    
+    @Override
+    public String toString(){
+        return "ScenarioResult{" +
+            "scenarioFile=" + scenarioFile +
+            ", duration=" + duration.toMillis() + "ms" +
+            ", passed=" + isPassed() +
+            (failure != null ? ", failure='" + failure.getMessage() + '\'' : "") +
+            '}';
+    }
+}
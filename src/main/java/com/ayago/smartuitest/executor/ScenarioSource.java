@@ -0,0 +1,17 @@
+package com.ayago.smartuitest.executor;
+
+import java.io.IOException;
+
+/**
+ * Hands out the scenarios of a run one by one.
+ */
+interface ScenarioSource{
+    
+    /**
+     * Takes the next scenario, waiting until one is ready.
+     *
+     * @return The next scenario, or {@code null} once there are no more.
+     * @throws IOException If the scenarios could not be discovered.
+     */
+    ParsedScenario next() throws IOException, InterruptedException;
+}
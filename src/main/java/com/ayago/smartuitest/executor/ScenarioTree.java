@@ -0,0 +1,147 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+import com.ayago.smartuitest.testscenario.TestScenario.Page;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The scenarios of one host and feature configuration, merged by their common first pages.
+ * <p>
+ * Every node is a page; the path from the root to a node is a page prefix that all scenarios below it
+ * start with. Two pages are the same node if they have the same name, expected values and action, so a
+ * prefix such as landing page, login, dashboard is run once for every scenario that starts with it.
+ * A scenario ends at the node of its last page.
+ */
+final class ScenarioTree{
+    
+    private final String host;
+    private final Map<String, Feature> features;
+    private final Node root = new Node(null, null);
+    
+    private ScenarioTree(String host, Map<String, Feature> features){
+        this.host = host;
+        this.features = features;
+    }
+    
+    /**
+     * Builds one tree per host and feature configuration, in the order the configurations first appear.
+     *
+     * @param scenarios Valid scenarios; the order of the scenarios is kept among siblings.
+     * @return The trees holding every scenario.
+     */
+    static List<ScenarioTree> build(Collection<ParsedScenario> scenarios){
+        Map<List<Object>, ScenarioTree> trees = new LinkedHashMap<>();
+        for (ParsedScenario scenario : scenarios) {
+            try {
+                String host = scenario.getScenario().getHost();
+                Map<String, Feature> features = scenario.getFeatures();
+                ScenarioTree tree = trees.computeIfAbsent(Arrays.asList(host, features), key -> new ScenarioTree(host, features));
+                Node node = tree.root;
+                for (Page page : scenario.getScenario().getPages()) {
+                    Node parent = node;
+                    node = parent.children.computeIfAbsent(page, key -> new Node(parent, key));
+                }
+                node.scenarios.add(scenario);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Only valid scenarios can be merged: " + scenario.getScenarioFile(), e);
+            }
+        }
+        return List.copyOf(trees.values());
+    }
+    
+    String getHost(){
+        return host;
+    }
+    
+    Map<String, Feature> getFeatures(){
+        return features;
+    }
+    
+    /**
+     * @return The node before the first page, where every scenario of the tree starts.
+     */
+    Node getRoot(){
+        return root;
+    }
+    
+    /**
+     * @return The number of pages run for the scenarios of the tree, each shared prefix counted once.
+     */
+    int countPages(){
+        return root.countNodes() - 1;
+    }
+    
+    /**
+     * @return The number of pages the scenarios of the tree declare together, i.e. run without sharing.
+     */
+    int countScenarioPages(){
+        return root.countScenarioPages(0);
+    }
+    
+    static final class Node{
+        
+        private final Node parent;
+        private final Page page;
+        private final Map<Page, Node> children = new LinkedHashMap<>();
+        private final List<ParsedScenario> scenarios = new ArrayList<>();
+        
+        private Node(Node parent, Page page){
+            this.parent = parent;
+            this.page = page;
+        }
+        
+        /**
+         * @return The page of the node, {@code null} for the root.
+         */
+        Page getPage(){
+            return page;
+        }
+        
+        /**
+         * @return The pages from the root up to and including this node.
+         */
+        List<Page> getPath(){
+            List<Page> path = new ArrayList<>();
+            for (Node node = this; node.page != null; node = node.parent) {
+                path.addFirst(node.page);
+            }
+            return path;
+        }
+        
+        List<Node> getChildren(){
+            return List.copyOf(children.values());
+        }
+        
+        /**
+         * @return The scenarios whose last page is this node.
+         */
+        List<ParsedScenario> getScenarios(){
+            return scenarios;
+        }
+        
+        /**
+         * @return The scenarios ending at this node or below it, in depth-first order.
+         */
+        List<ParsedScenario> getScenariosBelow(){
+            List<ParsedScenario> below = new ArrayList<>(scenarios);
+            children.values().forEach(child -> below.addAll(child.getScenariosBelow()));
+            return below;
+        }
+        
+        private int countScenarioPages(int depth){
+            return scenarios.size() * depth + children.values().stream().mapToInt(child -> child.countScenarioPages(depth + 1)).sum();
+        }
+        
+        private int countNodes(){
+            return 1 + children.values().stream().mapToInt(Node::countNodes).sum();
+        }
+    }
+}
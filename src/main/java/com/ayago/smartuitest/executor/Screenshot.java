@@ -0,0 +1,46 @@
+package com.ayago.smartuitest.executor;
+
+import java.nio.file.Path;
+
+/**
+ * A captured screenshot on its way to a {@link ScreenshotStore}.
+ */
+final class Screenshot{
+    
+    private final Path folder;
+    private final String scenario;
+    private final String fileName;
+    private final byte[] png;
+    
+    Screenshot(Path folder, String scenario, String fileName, byte[] png){
+        this.folder = folder;
+        this.scenario = scenario;
+        this.fileName = fileName;
+        this.png = png;
+    }
+    
+    /**
+     * @return The screenshot folder the image belongs in.
+     */
+    Path getFolder(){
+        return folder;
+    }
+    
+    /**
+     * @return The scenario the screenshot was taken in.
+     */
+    String getScenario(){
+        return scenario;
+    }
+    
+    /**
+     * @return The sanitized, timestamped name of the screenshot, e.g. {@code Login_page0_20240101_120000_000001.png}.
+     */
+    String getFileName(){
+        return fileName;
+    }
+    
+    byte[] getPng(){
+        return png;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ayago.smartuitest.executor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for taking a screenshot from the browser, on the scenario thread.
+ */
+@Name("com.ayago.smartuitest.ScreenshotCapture")
+@Label("Screenshot Capture")
+@Category({"Smart UI Test", "Screenshots"})
+@Description("Capture of a screenshot from the browser")
+@StackTrace(false)
+final class ScreenshotCaptureEvent extends Event{
+    
+    @Label("Name")
+    String name;
+    
+    @Label("Size")
+    @DataAmount
+    long size;
+}
@@ -0,0 +1,28 @@
+package com.ayago.smartuitest.executor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+
+/**
+ * Persists screenshots. Called from the {@link ScreenshotWriter} thread, and occasionally from a
+ * scenario thread, so implementations must be thread-safe.
+ */
+interface ScreenshotStore{
+    
+    /**
+     * @return The path the screenshot ended up at.
+     */
+    Path write(Screenshot screenshot) throws IOException;
+    
+    static void writeFully(Path target, byte[] content, OpenOption... options) throws IOException{
+        try (FileChannel channel = FileChannel.open(target, options)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ayago.smartuitest.executor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for storing a screenshot, usually on the background writer thread.
+ */
+@Name("com.ayago.smartuitest.ScreenshotWrite")
+@Label("Screenshot Write")
+@Category({"Smart UI Test", "Screenshots"})
+@Description("Write of a captured screenshot to its store")
+@StackTrace(false)
+final class ScreenshotWriteEvent extends Event{
+    
+    @Label("File Name")
+    String fileName;
+    
+    @Label("Stored At")
+    String storedAt;
+    
+    @Label("Size")
+    @DataAmount
+    long size;
+    
+    @Label("Success")
+    boolean success;
+}
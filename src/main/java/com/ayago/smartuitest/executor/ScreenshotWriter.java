@@ -0,0 +1,171 @@
+package com.ayago.smartuitest.executor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes screenshots to a {@link ScreenshotStore} on a single background thread, so that file I/O
+ * stays off the thread that drives the browser. Pending writes are held in a bounded queue; what happens when it is full
+ * is decided by the configured {@link RunnerProperties.ScreenShot.Backpressure} policy.
+ */
+class ScreenshotWriter implements AutoCloseable{
+    
+    private final ThreadPoolExecutor executor;
+    private final ScreenshotStore store;
+    // Not a monitor, so that a virtual thread waiting in flush() does not pin its carrier
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final Condition allWritten = pendingLock.newCondition();
+    private int pending;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    ScreenshotWriter(int queueSize, RunnerProperties.ScreenShot.Backpressure backpressure, ScreenshotStore store, ThreadFactory threadFactory){
+        this.store = store;
+        this.executor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+            threadFactory,
+            rejectionHandler(backpressure));
+    }
+    
+    /**
+     * Queues a screenshot for writing. Returns immediately unless the queue is full and the
+     * backpressure policy makes the caller wait or write the file itself.
+     *
+     * @param screenshot The captured screenshot.
+     * @return Completes once the screenshot has been written or dropped.
+     */
+    CompletableFuture<Void> submit(Screenshot screenshot){
+        pendingLock.lock();
+        try {
+            pending++;
+        } finally {
+            pendingLock.unlock();
+        }
+        WriteTask task = new WriteTask(screenshot);
+        executor.execute(task);
+        return task.done;
+    }
+    
+    /**
+     * Blocks until every screenshot submitted so far has been written or dropped.
+     */
+    void flush() throws InterruptedException{
+        pendingLock.lock();
+        try {
+            while (pending > 0) {
+                allWritten.await();
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+    
+    long getWritten(){
+        return written.get();
+    }
+    
+    long getDropped(){
+        return dropped.get();
+    }
+    
+    /**
+     * Writes the remaining queued screenshots and stops the writer thread. If the calling thread is
+     * interrupted while waiting, the queued screenshots are abandoned and the interrupt is kept.
+     */
+    @Override
+    public void close(){
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("ScreenshotWriter: Gave up waiting for " + executor.getQueue().size() + " pending screenshots.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            List<Runnable> abandoned = executor.shutdownNow();
+            abandoned.forEach(task -> completed((WriteTask) task));
+            System.err.println("ScreenshotWriter: Interrupted, abandoning " + abandoned.size() + " pending screenshots.");
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("ScreenshotWriter: " + written.get() + " screenshots written, " + dropped.get() + " dropped.");
+    }
+    
+    private void completed(WriteTask task){
+        pendingLock.lock();
+        try {
+            pending--;
+            allWritten.signalAll();
+        } finally {
+            pendingLock.unlock();
+        }
+        task.done.complete(null);
+    }
+    
+    private RejectedExecutionHandler rejectionHandler(RunnerProperties.ScreenShot.Backpressure backpressure){
+        return (runnable, pool) -> {
+            WriteTask task = (WriteTask) runnable;
+            if (pool.isShutdown()) {
+                // Late screenshot after close(): write it rather than lose it
+                task.run();
+                return;
+            }
+            switch (backpressure) {
+                case BLOCK -> {
+                    try {
+                        pool.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        task.drop();
+                    }
+                }
+                case DROP -> task.drop();
+                case CALLER_RUNS -> task.run();
+            }
+        };
+    }
+    
+    private class WriteTask implements Runnable{
+        private final Screenshot screenshot;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        
+        WriteTask(Screenshot screenshot){
+            this.screenshot = screenshot;
+        }
+        
+        @Override
+        public void run(){
+            ScreenshotWriteEvent event = new ScreenshotWriteEvent();
+            event.begin();
+            event.fileName = screenshot.getFileName();
+            event.size = screenshot.getPng().length;
+            try {
+                Path stored = store.write(screenshot);
+                written.incrementAndGet();
+                event.storedAt = stored.toString();
+                event.success = true;
+                System.out.println("Screenshot saved to: " + stored.toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("Failed to save screenshot: " + e.getMessage());
+            } finally {
+                event.commit();
+                completed(this);
+            }
+        }
+        
+        void drop(){
+            dropped.incrementAndGet();
+            System.err.println("ScreenshotWriter: Queue full, dropping screenshot " + screenshot.getFileName());
+            completed(this);
+        }
+    }
+}
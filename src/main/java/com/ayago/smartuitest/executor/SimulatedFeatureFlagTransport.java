@@ -0,0 +1,21 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Logs the flag changes instead of sending them, until a feature manager API is available.
+ */
+@Component
+class SimulatedFeatureFlagTransport implements FeatureFlagTransport{
+    
+    @Override
+    public void setFlags(Map<String, Feature> changes){
+        System.out.println("[FeatureManager] Sending " + changes.size() + " flag changes in one request");
+        changes.forEach((name, flag) -> System.out.println(
+            "[FeatureManager] Setting " + name + " to " + flag.isEnable() + " with context " + flag.getContext()));
+        // Simulate API call to set the flags
+    }
+}
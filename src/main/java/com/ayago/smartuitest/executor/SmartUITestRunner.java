@@ -1,51 +1,101 @@
 package com.ayago.smartuitest.executor;
 
+import com.ayago.smartuitest.engine.FieldValue;
 import com.ayago.smartuitest.engine.WebInteractionEngine;
 import com.ayago.smartuitest.engine.WebInteractionEngineFactory;
 import com.ayago.smartuitest.testscenario.Action;
 import com.ayago.smartuitest.testscenario.TestScenario;
 import com.ayago.smartuitest.testscenario.TestScenario.ExpectedElement;
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
 import com.ayago.smartuitest.testscenario.TestScenario.Page;
 import com.ayago.smartuitest.testscenario.json.JsonTestScenarioParser;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.springframework.beans.factory.annotation.Value; // Added import for @Value
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 
-import static java.nio.file.Files.walk;
-
 @Component
 class SmartUITestRunner implements CommandLineRunner {
+    /**
+     * How often applying a flag configuration is attempted before the scenarios waiting for it fail.
+     */
+    private static final int FEATURE_FLAG_ATTEMPTS = 3;
+    
     private final JsonTestScenarioParser parser;
     private final WebInteractionEngineFactory webInteractionEngineFactory;
     private final FeatureManagerClient featureManager;
     private final ExecutionPhotographer executionPhotographer;
+    private final WebDriverPool webDriverPool;
+    private final BrowserSnapshots snapshots;
+    private final WebDriverCommandMetrics commandMetrics;
+    private final RunMetrics runMetrics;
     
     // Inject the screenshot folder from application.yaml using @Value
     @Value("${screenshot.folder}")
     private final String screenshotsBaseDir;
     
+    private final int parallelism;
+    private final int parseThreads;
+    private final RunnerProperties.Runner.Validation validation;
+    private final RunnerProperties.Runner.ThreadModel threadModel;
+    private final boolean sharedPrefixes;
+    /**
+     * Limits the scenarios holding a browser to {@code parallelism}. Scenarios wait here without the
+     * timeout of a pool lease, so any number of them can be queued on virtual threads.
+     */
+    private final Semaphore browserSessions;
+    
     public SmartUITestRunner(
         JsonTestScenarioParser parser,
         WebInteractionEngineFactory webInteractionEngineFactory,
         FeatureManagerClient featureManager,
         ExecutionPhotographer executionPhotographer,
+        WebDriverPool webDriverPool,
+        BrowserSnapshots snapshots,
+        WebDriverCommandMetrics commandMetrics,
+        RunMetrics runMetrics,
         RunnerProperties runnerProperties
     ) {
         this.parser = parser;
         this.webInteractionEngineFactory = webInteractionEngineFactory;
         this.featureManager = featureManager; // Assuming Featug zx x v x xzhxvzhx vanagerClient exists
         this.executionPhotographer = executionPhotographer;
+        this.webDriverPool = webDriverPool;
+        this.snapshots = snapshots;
+        this.commandMetrics = commandMetrics;
+        this.runMetrics = runMetrics;
         this.screenshotsBaseDir = runnerProperties.getScreenShot().getFolder();
+        this.parallelism = Math.max(1, runnerProperties.getRunner().getParallelism());
+        this.parseThreads = runnerProperties.getRunner().getParseThreads();
+        this.validation = runnerProperties.getRunner().getValidation();
+        this.threadModel = runnerProperties.getRunner().getThreadModel();
+        this.sharedPrefixes = runnerProperties.getRunner().isSharedPrefixes();
+        this.browserSessions = new Semaphore(parallelism, true);
     }
     
     @Override
@@ -55,27 +105,24 @@ class SmartUITestRunner implements CommandLineRunner {
         String directoryPath = getDirectoryPath(args);
         if (directoryPath == null) return; // Exit if path is invalid
         
-        try {
+        try (ScenarioDiscovery discovery = new ScenarioDiscovery(parser, Paths.get(directoryPath), parseThreads)) {
             
-            List<File> jsonFiles = walk(Paths.get(directoryPath))
-                .filter(Files::isRegularFile)
-                .filter(p -> p.toString().endsWith(".json"))
-                .map(Path::toFile)
-                .toList();
+            List<ScenarioResult> results = runScenarios(discovery);
             
-            if (jsonFiles.isEmpty()) {
+            if (results.isEmpty()) {
                 System.out.println("No JSON files found in the specified directory: " + directoryPath);
                 return; // Exit if no JSON files are found
             }
             
-            for (File jsonFile : jsonFiles) {
-                System.out.println("Running test scenario from file: " + jsonFile.getAbsolutePath());
-                runTestScenario(jsonFile); // Delegate to the private method
-            }
+            reportResults(results);
             
         } catch (Exception e) {
             System.err.println("An error occurred during test execution: " + e.getMessage());
             throw e;
+        } finally {
+            webDriverPool.close();
+            commandMetrics.report();
+            runMetrics.export();
         }
     }
     
@@ -95,46 +142,629 @@ class SmartUITestRunner implements CommandLineRunner {
     }
     
     /**
-     * Runs a single test scenario from a JSON file.
+     * Runs the scenarios as {@code discovery} hands them out, grouped by their feature flags. With
+     * {@link RunnerProperties.Runner.Validation#UP_FRONT}, every file is parsed first and no scenario
+     * starts if any of them is invalid. With shared prefixes, every file is parsed first as well, so
+     * that the scenarios can be merged by their common pages.
      *
-     * @param jsonFile The JSON file containing the test scenario definition.
+     * @param discovery The scenarios of the run, in the order they were parsed.
+     * @return The results in the order the files were found, empty if there were none.
+     */
+    private List<ScenarioResult> runScenarios(ScenarioDiscovery discovery) throws Exception{
+        ScenarioSource scenarios = discovery;
+        if (validation == RunnerProperties.Runner.Validation.UP_FRONT || sharedPrefixes) {
+            List<ParsedScenario> parsed = new ArrayList<>();
+            for (ParsedScenario scenario = discovery.next(); scenario != null; scenario = discovery.next()) {
+                parsed.add(scenario);
+            }
+            if (validation == RunnerProperties.Runner.Validation.UP_FRONT) {
+                abortIfInvalid(parsed);
+            }
+            if (sharedPrefixes) {
+                return runSharedPrefixes(parsed);
+            }
+            Iterator<ParsedScenario> validated = parsed.iterator();
+            scenarios = () -> validated.hasNext() ? validated.next() : null;
+        }
+        return runGrouped(new FeatureGroups(scenarios));
+    }
+    
+    /**
+     * Runs the scenarios in the order given, one after the other on the calling thread or, with a
+     * {@code parallelism} above 1, concurrently on a fixed pool. Every thread drives its own browser,
+     * so the pool size also bounds the number of live WebDriver sessions. With the
+     * {@link RunnerProperties.Runner.ThreadModel#VIRTUAL} thread model, every scenario gets a virtual
+     * thread instead, and only the browser sessions limit how many of them run at once.
+     * <p>
+     * Feature flags are applied only when the configuration changes from one scenario to the next.
+     * They are shared by every running scenario, so the scenarios still running with the previous
+     * configuration are waited for first. The flags are applied in the background while the first
+     * scenario of the group starts its browser, and a failed attempt is retried before any scenario of
+     * the group sees it. Only once every attempt failed do the scenarios already started with the
+     * configuration fail; the next scenario of the group then tries again.
+     *
+     * @param scenarios The scenarios to run, with those sharing a flag configuration next to each other.
+     * @return The results in the order the files were found.
      */
-    private void runTestScenario(File jsonFile) throws IOException{
-        WebDriver webDriver = new ChromeDriver();
+    private List<ScenarioResult> runGrouped(ScenarioSource scenarios) throws IOException, InterruptedException{
+        ExecutorService executor = newScenarioExecutor("as they are parsed");
+        ExecutorService flagExecutor = Executors.newSingleThreadExecutor(RunnerThreads.factory(threadModel, "feature-flags"));
         try {
-            TestScenario definition = parser.parse(jsonFile);
-            
-            WebInteractionEngine interactionEngine = webInteractionEngineFactory.create(webDriver, definition.getHost());
-            System.out.println("Target Host: " + definition.getHost());
-            featureManager.applyFeatureFlags(definition.getFeatures()); // Assuming applyFeatureFlags exists
-            
-            IntStream.range(0, definition.getPages().size())
-                .forEach(pageCounter -> {
-                    Page page = definition.getPages().get(pageCounter);
-                    
-                    executionPhotographer.takeScreenshot(webDriver, page.getName()+"-On_Page", pageCounter, screenshotsBaseDir);
-                    
-                    for (ExpectedElement expected : page.getExpected()) {
-                        String actualValue = interactionEngine.getFieldValue(expected.getTarget());
-                        if (!actualValue.equals(expected.getValue())) {
-                            throw new AssertionError(
-                                "Expected field '" + expected.getTarget() + "' to be '" + expected.getValue() + "' but found '" +
-                                    actualValue + "'");
-                        }
+            Map<Integer, Future<ScenarioResult>> futures = new TreeMap<>();
+            List<Future<ScenarioResult>> running = new ArrayList<>();
+            Map<String, Feature> appliedFeatures = null;
+            CompletableFuture<CacheInvalidation> featureFlags = CompletableFuture.completedFuture(CacheInvalidation.NONE);
+            for (ParsedScenario scenario = scenarios.next(); scenario != null; scenario = scenarios.next()) {
+                // After the flags could not be applied, the next scenario of the group tries again
+                if (scenario.isValid() && (!scenario.getFeatures().equals(appliedFeatures) || featureFlags.isCompletedExceptionally())) {
+                    for (Future<ScenarioResult> future : running) {
+                        await(future);
                     }
-                    
-                    Action action = page.getAction();
-                    
-                    interactionEngine.performAction(
-                        action,
-                        () -> executionPhotographer.takeScreenshot(webDriver, page.getName()+"-On_Page", pageCounter, screenshotsBaseDir)
-                    );
-                });
+                    running.clear();
+                    Map<String, Feature> features = scenario.getFeatures();
+                    System.out.println("Applying feature flags for the next scenarios: " + features);
+                    featureFlags = applyFeatureFlags(features, flagExecutor);
+                    appliedFeatures = features;
+                }
+                ParsedScenario submitted = scenario;
+                CompletableFuture<CacheInvalidation> pendingFlags = featureFlags;
+                Future<ScenarioResult> future = executor != null
+                    ? executor.submit(() -> executeScenario(submitted, pendingFlags))
+                    : CompletableFuture.completedFuture(executeScenario(scenario, featureFlags));
+                futures.put(scenario.getIndex(), future);
+                running.add(future);
+            }
             
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Future<ScenarioResult> future : futures.values()) {
+                results.add(await(future));
+            }
+            return results;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            flagExecutor.shutdownNow();
+        }
+    }
+    
+    /**
+     * @param when How the scenarios are scheduled, for the log.
+     * @return The executor running the scenarios, or {@code null} to run them one after the other on the calling thread.
+     */
+    private ExecutorService newScenarioExecutor(String when){
+        if (threadModel == RunnerProperties.Runner.ThreadModel.VIRTUAL) {
+            System.out.println("Running test scenarios on virtual threads with up to " + parallelism + " browser sessions " + when);
+            return Executors.newThreadPerTaskExecutor(RunnerThreads.factory(threadModel, "scenario"));
+        }
+        if (parallelism > 1) {
+            System.out.println("Running test scenarios with parallelism " + parallelism + " " + when);
+            return Executors.newFixedThreadPool(parallelism, RunnerThreads.factory(threadModel, "scenario"));
+        }
+        return null;
+    }
+    
+    /**
+     * Runs the scenarios merged into {@link ScenarioTree}s, so that every page prefix they share is run once.
+     * <p>
+     * A tree starts in a browser of its own and follows its first branch. At every page where the scenarios
+     * continue differently, the browser state is captured, and each other branch is forked into another
+     * browser from the pool with that state restored. Forks are scheduled like scenarios: one after the
+     * other on the calling thread, or concurrently within the {@code parallelism} browser sessions.
+     * <p>
+     * The trees of one feature configuration run together, and the flags of the next configuration are
+     * only applied once all of them, forks included, have finished.
+     *
+     * @param scenarios Every scenario of the run; invalid files fail without starting a browser.
+     * @return The results in the order the files were found.
+     */
+    private List<ScenarioResult> runSharedPrefixes(List<ParsedScenario> scenarios) throws InterruptedException{
+        Map<Integer, ScenarioResult> results = new ConcurrentSkipListMap<>();
+        List<ParsedScenario> valid = new ArrayList<>();
+        for (ParsedScenario scenario : scenarios) {
+            if (scenario.isValid()) {
+                valid.add(scenario);
+            } else {
+                results.put(scenario.getIndex(), executeScenario(scenario, CompletableFuture.completedFuture(CacheInvalidation.NONE)));
+            }
+        }
+        List<ScenarioTree> trees = ScenarioTree.build(valid);
+        System.out.println("Merged " + valid.size() + " test scenarios into " + trees.size() + " shared-prefix trees: " +
+            trees.stream().mapToInt(ScenarioTree::countPages).sum() + " of " +
+            trees.stream().mapToInt(ScenarioTree::countScenarioPages).sum() + " pages to run");
+        Map<Map<String, Feature>, List<ScenarioTree>> treesByFeatures = new LinkedHashMap<>();
+        trees.forEach(tree -> treesByFeatures.computeIfAbsent(tree.getFeatures(), key -> new ArrayList<>()).add(tree));
+        
+        ExecutorService executor = newScenarioExecutor("as shared-prefix forks");
+        ExecutorService flagExecutor = Executors.newSingleThreadExecutor(RunnerThreads.factory(threadModel, "feature-flags"));
+        try {
+            for (Map.Entry<Map<String, Feature>, List<ScenarioTree>> group : treesByFeatures.entrySet()) {
+                Map<String, Feature> features = group.getKey();
+                System.out.println("Applying feature flags for the next scenarios: " + features);
+                CompletableFuture<CacheInvalidation> featureFlags = applyFeatureFlags(features, flagExecutor);
+                Forks forks = new Forks(executor, results);
+                group.getValue().forEach(tree -> forks.submit(new Fork(tree, tree.getRoot(), null, featureFlags, 0)));
+                forks.await();
+            }
+            return new ArrayList<>(results.values());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            flagExecutor.shutdownNow();
+        }
+    }
+    
+    /**
+     * A branch of a {@link ScenarioTree} to run in a browser of its own.
+     *
+     * @param tree The tree the branch belongs to.
+     * @param node The first node of the branch.
+     * @param state The browser state after the page before {@code node}; {@code null} to start at the host and
+     *              run the pages before {@code node} again.
+     * @param featureFlags The application of the tree's feature flags.
+     * @param elapsedNanos Time spent on the pages before {@code node}, counted towards every scenario of the branch.
+     */
+    private record Fork(ScenarioTree tree, ScenarioTree.Node node, BrowserState state,
+                        CompletableFuture<CacheInvalidation> featureFlags, long elapsedNanos){
+    }
+    
+    /**
+     * Runs forks, and the forks they start in turn, until all of them have finished.
+     */
+    private final class Forks{
+        
+        private final ExecutorService executor;
+        private final Map<Integer, ScenarioResult> results;
+        private final Deque<Fork> queued = new ArrayDeque<>();
+        private final Phaser running = new Phaser(1);
+        private final AtomicReference<Throwable> fatalError = new AtomicReference<>();
+        
+        Forks(ExecutorService executor, Map<Integer, ScenarioResult> results){
+            this.executor = executor;
+            this.results = results;
+        }
+        
+        void submit(Fork fork){
+            if (executor == null) {
+                queued.add(fork);
+                return;
+            }
+            running.register();
+            executor.execute(() -> {
+                try {
+                    runFork(fork, this);
+                } catch (InterruptedException e) {
+                    // The run is being aborted
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    // Page failures are results; only unexpected errors (e.g. OutOfMemoryError) escape runFork
+                    fatalError.compareAndSet(null, e);
+                } finally {
+                    running.arriveAndDeregister();
+                }
+            });
+        }
+        
+        void await() throws InterruptedException{
+            for (Fork fork = queued.poll(); fork != null; fork = queued.poll()) {
+                runFork(fork, this);
+            }
+            running.awaitAdvanceInterruptibly(running.arrive());
+            if (fatalError.get() != null) {
+                throw new IllegalStateException("Scenario worker terminated unexpectedly", fatalError.get());
+            }
+        }
+    }
+    
+    /**
+     * Starts a browser for the fork and runs its branch. The branch is reported under the name of its
+     * first scenario file, for the metrics and screenshots of its pages.
+     */
+    private void runFork(Fork fork, Forks forks) throws InterruptedException{
+        List<ParsedScenario> scenarios = fork.node().getScenariosBelow();
+        String name = scenarios.getFirst().getScenarioFile().getName();
+        CompletableFuture<Void> screenshots = CompletableFuture.completedFuture(null);
+        browserSessions.acquire();
+        try {
+            commandMetrics.beginScenario(name);
+            long setupStart = System.nanoTime();
+            WebDriver webDriver;
+            try {
+                webDriver = webDriverPool.lease();
+            } catch (RuntimeException e) {
+                // No browser could be leased
+                commandMetrics.endScenario();
+                completed(scenarios, fork.elapsedNanos() + System.nanoTime() - setupStart, e, forks.results);
+                return;
+            }
+            boolean failed = true;
+            try {
+                executionPhotographer.beginScenario(webDriver, name);
+                WebInteractionEngine interactionEngine;
+                try {
+                    interactionEngine = startFork(fork, webDriver, name);
+                } catch (Exception | AssertionError e) {
+                    completed(scenarios, fork.elapsedNanos() + System.nanoTime() - setupStart, e, forks.results);
+                    return;
+                }
+                runMetrics.setupCompleted(name, Duration.ofNanos(System.nanoTime() - setupStart));
+                failed = !runBranch(fork, webDriver, interactionEngine, name, fork.elapsedNanos() + System.nanoTime() - setupStart, forks);
+            } finally {
+                screenshots = executionPhotographer.completeScenario(webDriver, failed);
+                webDriverPool.release(webDriver);
+                commandMetrics.endScenario();
+            }
+        } finally {
+            browserSessions.release();
+            // Only the branch's own screenshots are awaited, and without holding a browser session
+            executionPhotographer.awaitWrites(screenshots);
+        }
+    }
+    
+    /**
+     * Brings the browser to the point where the fork's branch starts: the restored state of the fork,
+     * or the host and the pages before the branch if no state could be captured.
+     *
+     * @return The engine bound to the browser.
+     */
+    private WebInteractionEngine startFork(Fork fork, WebDriver webDriver, String name) throws InterruptedException{
+        awaitFeatureFlags(fork.featureFlags()).await();
+        if (fork.state() != null) {
+            fork.state().restore(webDriver);
+            // Reloaded, so that the page sees the restored cookies and storage
+            return webInteractionEngineFactory.create(webDriver, fork.state().getUrl());
+        }
+        WebInteractionEngine interactionEngine = webInteractionEngineFactory.create(webDriver, fork.tree().getHost());
+        System.out.println("Target Host: " + fork.tree().getHost());
+        List<Page> path = fork.node().getPath();
+        List<Page> before = path.isEmpty() ? path : path.subList(0, path.size() - 1);
+        for (int pageCounter = 0; pageCounter < before.size(); pageCounter++) {
+            runPage(webDriver, interactionEngine, name, before.get(pageCounter), pageCounter);
+        }
+        return interactionEngine;
+    }
+    
+    /**
+     * Runs the pages of a branch, following the first child of every node. The other children are
+     * forked with the state of the browser after the current page. A page that fails ends the branch and
+     * fails every scenario below it; the forks started before are not affected.
+     *
+     * @param elapsedNanos Time spent on the branch so far, including its setup.
+     * @return Whether every page of the branch passed.
+     */
+    private boolean runBranch(Fork fork, WebDriver webDriver, WebInteractionEngine interactionEngine, String name,
+                              long elapsedNanos, Forks forks){
+        ScenarioTree.Node node = fork.node();
+        int pageCounter = node.getPath().size() - 1;
+        while (true) {
+            if (node.getPage() != null) {
+                long pageStart = System.nanoTime();
+                try {
+                    runPage(webDriver, interactionEngine, name, node.getPage(), pageCounter);
+                } catch (Exception | AssertionError e) {
+                    completed(node.getScenariosBelow(), elapsedNanos + System.nanoTime() - pageStart, e, forks.results);
+                    return false;
+                }
+                elapsedNanos += System.nanoTime() - pageStart;
+            }
+            completed(node.getScenarios(), elapsedNanos, null, forks.results);
             
+            List<ScenarioTree.Node> children = node.getChildren();
+            if (children.isEmpty()) {
+                return true;
+            }
+            if (children.size() > 1) {
+                BrowserState state = captureState(webDriver);
+                for (ScenarioTree.Node child : children.subList(1, children.size())) {
+                    forks.submit(new Fork(fork.tree(), child, state, fork.featureFlags(), elapsedNanos));
+                }
+            }
+            node = children.getFirst();
+            pageCounter++;
+        }
+    }
+    
+    /**
+     * @return The state of the browser, or {@code null} if it cannot be captured and the forks have to run
+     * the shared pages again.
+     */
+    private static BrowserState captureState(WebDriver webDriver){
+        try {
+            return BrowserState.capture(webDriver);
+        } catch (RuntimeException e) {
+            System.err.println("Could not capture the browser state, forks will run the shared pages again: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Records the results of scenarios that ended in a shared-prefix tree.
+     *
+     * @param failure The error that failed the scenarios, {@code null} if they passed.
+     */
+    private void completed(List<ParsedScenario> scenarios, long elapsedNanos, Throwable failure, Map<Integer, ScenarioResult> results){
+        Duration duration = Duration.ofNanos(elapsedNanos);
+        for (ParsedScenario scenario : scenarios) {
+            File jsonFile = scenario.getScenarioFile();
+            ScenarioResult result;
+            if (failure == null) {
+                result = ScenarioResult.passed(jsonFile, duration);
+            } else {
+                System.err.println("Test scenario failed: " + jsonFile.getAbsolutePath() + " - " + failure.getMessage());
+                result = ScenarioResult.failed(jsonFile, duration, failure);
+            }
+            runMetrics.scenarioCompleted(jsonFile.getName(), result.isPassed(), result.getDuration());
+            results.put(scenario.getIndex(), result);
+        }
+    }
+    
+    private static ScenarioResult await(Future<ScenarioResult> future) throws InterruptedException{
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // executeScenario only lets fatal errors (e.g. OutOfMemoryError) escape
+            throw new IllegalStateException("Scenario worker terminated unexpectedly", e.getCause());
+        }
+    }
+    
+    /**
+     * Applies a flag configuration in the background. A failed attempt is retried on the flag executor,
+     * up to {@link #FEATURE_FLAG_ATTEMPTS} attempts, so that the scenarios sharing the returned future
+     * only fail if the flags cannot be applied at all.
+     *
+     * @return The cache invalidation of the applied flags, or the error of the last attempt.
+     */
+    private CompletableFuture<CacheInvalidation> applyFeatureFlags(Map<String, Feature> features, ExecutorService flagExecutor){
+        return applyFeatureFlags(features, flagExecutor, 1);
+    }
+    
+    private CompletableFuture<CacheInvalidation> applyFeatureFlags(Map<String, Feature> features, ExecutorService flagExecutor, int attempt){
+        CompletableFuture<CacheInvalidation> applied = CompletableFuture.supplyAsync(() -> featureManager.applyFeatureFlags(features), flagExecutor);
+        if (attempt == FEATURE_FLAG_ATTEMPTS) {
+            return applied;
+        }
+        return applied.exceptionallyCompose(e -> {
+            System.err.println("Failed to apply feature flags (attempt " + attempt + " of " + FEATURE_FLAG_ATTEMPTS + "), retrying: " + (e.getCause() != null ? e.getCause() : e).getMessage());
+            return applyFeatureFlags(features, flagExecutor, attempt + 1);
+        });
+    }
+    
+    /**
+     * @return The cache invalidation of the applied flags.
+     * @throws RuntimeException The error that prevented the flags from being applied.
+     */
+    private static CacheInvalidation awaitFeatureFlags(CompletableFuture<CacheInvalidation> featureFlags) throws InterruptedException{
+        try {
+            return featureFlags.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to apply feature flags", e.getCause());
+        }
+    }
+    
+    /**
+     * Fails the run before any browser is started if a scenario file is invalid. The first parse error
+     * is thrown, with the errors of the other invalid files attached as suppressed exceptions.
+     *
+     * @param scenarios Every scenario of the run.
+     */
+    private void abortIfInvalid(List<ParsedScenario> scenarios) throws Exception{
+        List<Throwable> failures = scenarios.stream()
+            .filter(scenario -> !scenario.isValid())
+            .sorted(Comparator.comparingInt(ParsedScenario::getIndex))
+            .<Throwable>map(ParsedScenario::getFailure)
+            .toList();
+        if (failures.isEmpty()) {
+            return;
+        }
+        System.err.println("Aborting test run: " + failures.size() + " of " + scenarios.size() +
+            " scenario files are invalid, no scenario was started.");
+        throwFirst(failures);
+    }
+    
+    /**
+     * Runs a single scenario and converts its outcome into a {@link ScenarioResult}, so that an
+     * assertion failure or error in one scenario does not stop the others.
+     *
+     * @param scenario The parsed scenario; an invalid file fails without starting a browser.
+     * @param featureFlags The application of the scenario's feature flags.
+     * @return The result of the scenario.
+     */
+    private ScenarioResult executeScenario(ParsedScenario scenario, CompletableFuture<CacheInvalidation> featureFlags){
+        File jsonFile = scenario.getScenarioFile();
+        System.out.println("Running test scenario from file: " + jsonFile.getAbsolutePath());
+        long start = System.nanoTime();
+        ScenarioEvent event = new ScenarioEvent();
+        event.begin();
+        ScenarioResult result;
+        try {
+            runTestScenario(jsonFile, scenario.getScenario(), featureFlags);
+            result = ScenarioResult.passed(jsonFile, Duration.ofNanos(System.nanoTime() - start));
+        } catch (Exception | AssertionError e) {
+            System.err.println("Test scenario failed: " + jsonFile.getAbsolutePath() + " - " + e.getMessage());
+            result = ScenarioResult.failed(jsonFile, Duration.ofNanos(System.nanoTime() - start), e);
+        }
+        runMetrics.scenarioCompleted(jsonFile.getName(), result.isPassed(), result.getDuration());
+        event.scenario = jsonFile.getName();
+        event.passed = result.isPassed();
+        event.commit();
+        return result;
+    }
+    
+    /**
+     * Prints a summary of the run. If any scenario failed, the first failure is rethrown once all
+     * scenarios have finished, with the remaining failures attached as suppressed exceptions.
+     *
+     * @param results The results of every scenario in the run.
+     */
+    private void reportResults(List<ScenarioResult> results) throws Exception{
+        List<ScenarioResult> failures = results.stream().filter(result -> !result.isPassed()).toList();
+        System.out.println("Test run finished: " + results.size() + " scenarios, " +
+            (results.size() - failures.size()) + " passed, " + failures.size() + " failed.");
+        results.forEach(result -> System.out.println("  " + result));
+        
+        if (failures.isEmpty()) {
+            return;
+        }
+        throwFirst(failures.stream().map(ScenarioResult::getFailure).toList());
+    }
+    
+    private static void throwFirst(List<Throwable> failures) throws Exception{
+        Throwable firstFailure = failures.getFirst();
+        failures.stream().skip(1)
+            .filter(failure -> failure != firstFailure)
+            .forEach(firstFailure::addSuppressed);
+        if (firstFailure instanceof Exception exception) {
+            throw exception;
+        }
+        throw (Error) firstFailure;
+    }
+    
+    /**
+     * Runs a single test scenario in a browser leased from the pool.
+     * <p>
+     * Setup is a small dependency graph rather than a sequence: the scenario was parsed during discovery,
+     * and its feature flags and the cache invalidation they trigger run in the background while the
+     * browser starts. Only the navigation to the host waits for all of them, so the fixed cost of a
+     * scenario is its slowest setup step rather than the sum of them.
+     * <p>
+     * A scenario that declares a snapshot starts from the browser state an earlier scenario captured after
+     * the same pages, and skips them. Without a snapshot, or with one the browser does not accept, it runs
+     * them and captures one.
+     *
+     * @param jsonFile The JSON file containing the test scenario definition.
+     * @param definition The scenario parsed from {@code jsonFile}.
+     * @param featureFlags The application of the scenario's feature flags, awaited before the first page load.
+     */
+    private void runTestScenario(File jsonFile, TestScenario definition, CompletableFuture<CacheInvalidation> featureFlags) throws InterruptedException{
+        CompletableFuture<Void> screenshots = CompletableFuture.completedFuture(null);
+        browserSessions.acquire();
+        try {
+            commandMetrics.beginScenario(jsonFile.getName());
+            long setupStart = System.nanoTime();
+            WebDriver webDriver = null;
+            boolean failed = true;
+            try {
+                webDriver = webDriverPool.lease();
+                executionPhotographer.beginScenario(webDriver, jsonFile.getName());
+                runPages(webDriver, jsonFile, definition, featureFlags, setupStart);
+                failed = false;
+            } finally {
+                if (webDriver != null) {
+                    // Failure screenshots need the browser as the scenario left it, before the pool resets it
+                    screenshots = executionPhotographer.completeScenario(webDriver, failed);
+                    webDriverPool.release(webDriver);
+                }
+                commandMetrics.endScenario();
+            }
+        } finally {
+            browserSessions.release();
+            // Screenshots of the scenario are on disk once it is reported. Only its own writes are awaited,
+            // and without holding a browser session, so other scenarios keep running meanwhile
+            executionPhotographer.awaitWrites(screenshots);
+        }
+    }
+    
+    /**
+     * Runs the pages of a scenario in the leased browser, once its feature flags are applied.
+     *
+     * @param setupStart When the scenario started waiting for its browser.
+     */
+    private void runPages(WebDriver webDriver, File jsonFile, TestScenario definition, CompletableFuture<CacheInvalidation> featureFlags,
+                          long setupStart) throws InterruptedException{
+        // Flags must be set before the host is loaded, and the first page must not see stale cache entries
+        awaitFeatureFlags(featureFlags).await();
+        runMetrics.setupCompleted(jsonFile.getName(), Duration.ofNanos(System.nanoTime() - setupStart));
+        BrowserSnapshots.Key snapshot = snapshots.keyOf(definition);
+        // A snapshot that cannot be restored is dropped, and the scenario runs from its host instead
+        BrowserState restored = snapshot != null && definition.getSnapshot().isRestore() ? snapshots.restore(snapshot, webDriver) : null;
+        WebInteractionEngine interactionEngine;
+        int firstPage = 0;
+        if (restored != null) {
+            // Reloaded, so that the page sees the restored cookies and storage
+            interactionEngine = webInteractionEngineFactory.create(webDriver, restored.getUrl());
+            firstPage = snapshot.pages().size();
+            System.out.println("Restored browser state after page '" + definition.getSnapshot().getAfterPage() +
+                "', skipping " + firstPage + " pages");
+        } else {
+            interactionEngine = webInteractionEngineFactory.create(webDriver, definition.getHost());
+            System.out.println("Target Host: " + definition.getHost());
+        }
+        
+        IntStream.range(firstPage, definition.getPages().size())
+            .forEach(pageCounter -> {
+                runPage(webDriver, interactionEngine, jsonFile.getName(), definition.getPages().get(pageCounter), pageCounter);
+                if (restored == null && snapshot != null && pageCounter == snapshot.pages().size() - 1) {
+                    snapshots.capture(snapshot, webDriver);
+                }
+            });
+    }
+    
+    /**
+     * Runs one page of a scenario: screenshots it, verifies its expected values and performs its action.
+     *
+     * @param scenarioName The name the page is reported under.
+     * @param pageCounter The position of the page in its scenario.
+     */
+    private void runPage(WebDriver webDriver, WebInteractionEngine interactionEngine, String scenarioName, Page page, int pageCounter){
+        commandMetrics.beginPage(page.getName());
+        long pageStart = System.nanoTime();
+        PageEvent pageEvent = new PageEvent();
+        pageEvent.begin();
+        
+        executionPhotographer.takeScreenshot(webDriver, page.getName()+"-On_Page", pageCounter, screenshotsBaseDir);
+        
+        verifyExpectedElements(interactionEngine, page.getExpected());
+        
+        Action action = page.getAction();
+        
+        if (action != null) {
+            commandMetrics.beginAction(action.getClass().getSimpleName());
+        }
+        try {
+            interactionEngine.performAction(
+                action,
+                () -> executionPhotographer.takeScreenshot(webDriver, page.getName()+"-On_Page", pageCounter, screenshotsBaseDir)
+            );
         } finally {
-            webDriver.quit();
+            commandMetrics.endAction();
         }
+        runMetrics.pageCompleted(scenarioName, page.getName(), Duration.ofNanos(System.nanoTime() - pageStart));
+        pageEvent.scenario = scenarioName;
+        pageEvent.page = page.getName();
+        pageEvent.pageIndex = pageCounter;
+        pageEvent.commit();
     }
     
-}
\ No newline at end of file
+    /**
+     * Verifies the expected values of a page. All targets are read with one bulk call to the engine
+     * rather than one resolve and read per field.
+     *
+     * @param interactionEngine The engine bound to the scenario's browser.
+     * @param expectedElements The expected values declared for the page.
+     * @throws AssertionError if a field does not have its expected value.
+     * @throws RuntimeException if a field cannot be found on the page.
+     */
+    private void verifyExpectedElements(WebInteractionEngine interactionEngine, List<ExpectedElement> expectedElements){
+        if (expectedElements.isEmpty()) {
+            return;
+        }
+        List<String> targets = expectedElements.stream().map(ExpectedElement::getTarget).distinct().toList();
+        Map<String, FieldValue> actualValues = interactionEngine.getFieldValues(targets);
+        
+        for (ExpectedElement expected : expectedElements) {
+            FieldValue actual = actualValues.get(expected.getTarget());
+            if (actual == null || !actual.isFound()) {
+                throw new RuntimeException(actual != null ? actual.getError() : "Field not found: " + expected.getTarget());
+            }
+            if (!Objects.equals(actual.getValue(), expected.getValue())) {
+                throw new AssertionError(
+                    "Expected field '" + expected.getTarget() + "' to be '" + expected.getValue() + "' but found '" +
+                        actual.getValue() + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.ayago.smartuitest.executor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records every command sent to the browsers created by {@link WebDriverProvider}. The provider wraps
+ * each driver with an {@link org.openqa.selenium.support.events.EventFiringDecorator} that reports to
+ * this listener; each command (findElement, executeScript, click, getScreenshotAs, get, ...) goes into
+ * a latency histogram for its type and is counted against the page and action that issued it.
+ * <p>
+ * The runner tells the metrics which scenario, page and action its thread is working on. A browser is
+ * only ever driven by the thread that leased it, so the context is kept per thread.
+ * At the end of the run, {@link #report()} prints a summary and writes a JSON dump.
+ */
+@Component
+class WebDriverCommandMetrics implements WebDriverListener{
+    
+    private static final String SETUP = "(setup)";
+    private static final String NO_SCENARIO = "(no scenario)";
+    
+    /**
+     * Calls that only navigate the client-side object graph and never reach the browser.
+     */
+    private static final Set<String> LOCAL_CALLS = Set.of(
+        "manage", "navigate", "switchTo", "timeouts", "window", "getWrappedDriver", "getWrappedElement");
+    
+    private static final int SUMMARY_PAGES = 10;
+    
+    private final boolean enabled;
+    private final String dumpFile;
+    private final Map<String, LatencyHistogram> commandLatencies = new ConcurrentHashMap<>();
+    private final Map<String, PageStats> pages = new ConcurrentHashMap<>();
+    private final Map<String, ActionStats> actions = new ConcurrentHashMap<>();
+    private final ThreadLocal<Context> context = ThreadLocal.withInitial(Context::new);
+    private final ThreadLocal<Deque<Long>> callStarts = ThreadLocal.withInitial(ArrayDeque::new);
+    
+    WebDriverCommandMetrics(RunnerProperties runnerProperties){
+        RunnerProperties.Instrumentation instrumentation = runnerProperties.getInstrumentation();
+        this.enabled = instrumentation.isEnabled();
+        this.dumpFile = instrumentation.getDumpFile();
+    }
+    
+    boolean isEnabled(){
+        return enabled;
+    }
+    
+    void beginScenario(String scenario){
+        Context current = context.get();
+        current.scenario = scenario;
+        current.page = SETUP;
+        current.action = null;
+    }
+    
+    void beginPage(String page){
+        Context current = context.get();
+        current.page = page;
+        current.action = null;
+    }
+    
+    /**
+     * Attributes the following commands to an action of the given type, until {@link #endAction()}.
+     */
+    void beginAction(String actionType){
+        context.get().action = actionType;
+        actions.computeIfAbsent(actionType, key -> new ActionStats()).actions.increment();
+    }
+    
+    void endAction(){
+        context.get().action = null;
+    }
+    
+    void endScenario(){
+        context.remove();
+    }
+    
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args){
+        callStarts.get().push(System.nanoTime());
+    }
+    
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result){
+        completed(method);
+    }
+    
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e){
+        completed(method);
+    }
+    
+    private void completed(Method method){
+        Long start = callStarts.get().poll();
+        if (start == null || LOCAL_CALLS.contains(method.getName())) {
+            return;
+        }
+        String command = method.getName();
+        commandLatencies.computeIfAbsent(command, key -> new LatencyHistogram()).record(System.nanoTime() - start);
+        
+        Context current = context.get();
+        String scenario = current.scenario != null ? current.scenario : NO_SCENARIO;
+        PageStats page = pages.computeIfAbsent(scenario + " > " + current.page, key -> new PageStats(scenario, current.page));
+        page.commands.increment();
+        page.byCommand.computeIfAbsent(command, key -> new LongAdder()).increment();
+        if (current.action != null) {
+            page.actionCommands.increment();
+            actions.computeIfAbsent(current.action, key -> new ActionStats()).commands.increment();
+        }
+    }
+    
+    /**
+     * Prints the latency per command type and the pages with the most round trips, and writes the full
+     * metrics as JSON to the configured dump file.
+     */
+    void report(){
+        if (!enabled || commandLatencies.isEmpty()) {
+            return;
+        }
+        System.out.println("WebDriver commands:");
+        System.out.println(String.format("  %-22s %8s %10s %9s %9s %9s %9s",
+            "command", "count", "total ms", "mean ms", "p50 ms", "p95 ms", "max ms"));
+        commandLatencies.entrySet().stream()
+            .sorted(Comparator.comparingDouble((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().getTotalMillis()).reversed())
+            .forEach(entry -> {
+                LatencyHistogram histogram = entry.getValue();
+                System.out.println(String.format("  %-22s %8d %10.0f %9.1f %9.0f %9.0f %9.1f",
+                    entry.getKey(), histogram.getCount(), histogram.getTotalMillis(), histogram.getMeanMillis(),
+                    histogram.getPercentileMillis(50), histogram.getPercentileMillis(95), histogram.getMaxMillis()));
+            });
+        System.out.println("Pages with the most WebDriver commands:");
+        pagesByCommands().stream().limit(SUMMARY_PAGES).forEach(page ->
+            System.out.println("  " + page.commands.sum() + " commands (" + page.actionCommands.sum() + " in action) - "
+                + page.scenario + " > " + page.page));
+        
+        if (dumpFile != null && !dumpFile.isBlank()) {
+            writeDump(Path.of(dumpFile));
+        }
+    }
+    
+    Map<String, Object> snapshot(){
+        Map<String, Object> commands = new TreeMap<>();
+        commandLatencies.forEach((command, histogram) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getCount());
+            stats.put("totalMillis", histogram.getTotalMillis());
+            stats.put("meanMillis", histogram.getMeanMillis());
+            stats.put("p50Millis", histogram.getPercentileMillis(50));
+            stats.put("p95Millis", histogram.getPercentileMillis(95));
+            stats.put("p99Millis", histogram.getPercentileMillis(99));
+            stats.put("maxMillis", histogram.getMaxMillis());
+            stats.put("buckets", histogram.getBuckets());
+            commands.put(command, stats);
+        });
+        
+        List<Map<String, Object>> pageList = pagesByCommands().stream().map(page -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("scenario", page.scenario);
+            stats.put("page", page.page);
+            stats.put("commands", page.commands.sum());
+            stats.put("actionCommands", page.actionCommands.sum());
+            Map<String, Long> byCommand = new TreeMap<>();
+            page.byCommand.forEach((command, count) -> byCommand.put(command, count.sum()));
+            stats.put("byCommand", byCommand);
+            return stats;
+        }).toList();
+        
+        Map<String, Object> actionStats = new TreeMap<>();
+        actions.forEach((actionType, stats) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("actions", stats.actions.sum());
+            entry.put("commands", stats.commands.sum());
+            entry.put("commandsPerAction", stats.actions.sum() == 0 ? 0.0 : (double) stats.commands.sum() / stats.actions.sum());
+            actionStats.put(actionType, entry);
+        });
+        
+        Map<String, Object> dump = new LinkedHashMap<>();
+        dump.put("commands", commands);
+        dump.put("pages", pageList);
+        dump.put("actions", actionStats);
+        return dump;
+    }
+    
+    private List<PageStats> pagesByCommands(){
+        return pages.values().stream()
+            .sorted(Comparator.comparingLong((PageStats page) -> page.commands.sum()).reversed())
+            .toList();
+    }
+    
+    private void writeDump(Path target){
+        try {
+            if (target.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(target.toAbsolutePath().getParent());
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(target.toFile(), snapshot());
+            System.out.println("WebDriver command metrics written to: " + target.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to write WebDriver command metrics: " + e.getMessage());
+        }
+    }
+    
+    private static final class Context{
+        private String scenario;
+        private String page = SETUP;
+        private String action;
+    }
+    
+    private static final class PageStats{
+        private final String scenario;
+        private final String page;
+        private final LongAdder commands = new LongAdder();
+        private final LongAdder actionCommands = new LongAdder();
+        private final Map<String, LongAdder> byCommand = new ConcurrentHashMap<>();
+        
+        private PageStats(String scenario, String page){
+            this.scenario = scenario;
+            this.page = page;
+        }
+    }
+    
+    private static final class ActionStats{
+        private final LongAdder actions = new LongAdder();
+        private final LongAdder commands = new LongAdder();
+    }
+}
@@ -0,0 +1,306 @@
+package com.ayago.smartuitest.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chromium.HasCdp;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of warm browser sessions. Starting Chrome usually costs more than running a short
+ * scenario, so instead of a new driver per scenario the runner leases one from this pool and returns
+ * it when the scenario is done.
+ * <p>
+ * Before a previously used driver is leased again its whole browser state is cleared through the Chrome
+ * DevTools protocol: the cookies of every domain, the storage of every origin the previous scenario
+ * visited (including redirects, e.g. to a single sign-on page), and its tabs, which take their session
+ * storage and history with them. A lease is therefore as clean as a new browser. Drivers that do not speak
+ * the protocol cannot be cleared this way and are quit on release instead of being reused. The reset
+ * doubles as a health check: a driver whose session does not answer is quit and replaced. Drivers are
+ * also recycled after {@code driverPool.maxUsesPerDriver} scenarios to keep long runs from accumulating
+ * browser leaks.
+ * <p>
+ * Lease waits, driver creations and evictions are recorded as {@code smartui.driver.lease},
+ * {@code smartui.driver.created} and {@code smartui.driver.evicted}.
+ */
+@Component
+class WebDriverPool implements AutoCloseable{
+    
+    private final WebDriverProvider webDriverProvider;
+    private final int maxSize;
+    private final int maxUsesPerDriver;
+    private final Duration leaseTimeout;
+    
+    private final Semaphore leasePermits;
+    private final LinkedBlockingDeque<PooledDriver> idleDrivers = new LinkedBlockingDeque<>();
+    private final Map<WebDriver, PooledDriver> leasedDrivers = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final PoolMetrics metrics;
+    
+    private volatile boolean closed;
+    
+    public WebDriverPool(WebDriverProvider webDriverProvider, RunnerProperties runnerProperties, MeterRegistry meterRegistry){
+        RunnerProperties.DriverPool poolProperties = runnerProperties.getDriverPool();
+        this.webDriverProvider = webDriverProvider;
+        this.maxSize = poolProperties.getMaxSize() > 0
+            ? poolProperties.getMaxSize()
+            : Math.max(1, runnerProperties.getRunner().getParallelism());
+        this.maxUsesPerDriver = Math.max(1, poolProperties.getMaxUsesPerDriver());
+        this.leaseTimeout = poolProperties.getLeaseTimeout();
+        this.leasePermits = new Semaphore(maxSize, true);
+        this.metrics = new PoolMetrics(meterRegistry);
+    }
+    
+    /**
+     * Leases a driver, reusing an idle one when a healthy one is available and starting a new one
+     * otherwise. Blocks while {@code maxSize} drivers are already leased.
+     *
+     * @return A driver with a clean browser state. It must be handed back with {@link #release(WebDriver)}.
+     * @throws IllegalStateException if the pool is closed or no driver became free within the lease timeout.
+     */
+    public WebDriver lease() throws InterruptedException{
+        if (closed) {
+            throw new IllegalStateException("WebDriverPool is closed.");
+        }
+        long waitStart = System.nanoTime();
+        if (!leasePermits.tryAcquire(leaseTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Timed out after " + leaseTimeout + " waiting for a WebDriver. " +
+                "All " + maxSize + " pooled drivers are in use.");
+        }
+        try {
+            PooledDriver pooled = takeHealthyIdleDriver();
+            if (pooled == null) {
+                pooled = new PooledDriver(webDriverProvider.create());
+                metrics.creations.increment();
+            }
+            metrics.recordLease(System.nanoTime() - waitStart);
+            leasedDrivers.put(pooled.driver, pooled);
+            return pooled.driver;
+        } catch (RuntimeException e) {
+            leasePermits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Hands a leased driver back to the pool. The driver is kept for reuse unless it reached
+     * {@code maxUsesPerDriver} or the pool has been closed, in which case it is quit.
+     *
+     * @param driver A driver obtained from {@link #lease()}.
+     * @throws IllegalArgumentException if the driver was not leased from this pool.
+     */
+    public void release(WebDriver driver){
+        PooledDriver pooled = leasedDrivers.remove(driver);
+        if (pooled == null) {
+            throw new IllegalArgumentException("WebDriver was not leased from this pool: " + driver);
+        }
+        try {
+            pooled.uses++;
+            if (closed) {
+                evict(pooled, "pool closed");
+            } else if (!(driver instanceof HasCdp)) {
+                evict(pooled, "browser state cannot be cleared");
+            } else if (pooled.uses >= maxUsesPerDriver) {
+                evict(pooled, "reached " + maxUsesPerDriver + " uses");
+            } else {
+                // LIFO keeps the most recently used (warmest) browsers in rotation
+                idleDrivers.offerFirst(pooled);
+            }
+        } finally {
+            leasePermits.release();
+        }
+    }
+    
+    public PoolMetrics getMetrics(){
+        return metrics;
+    }
+    
+    /**
+     * Quits every idle driver and prevents further leases. Drivers still leased are quit when they
+     * are released.
+     */
+    @Override
+    public void close(){
+        if (closed) {
+            return;
+        }
+        closed = true;
+        PooledDriver pooled;
+        while ((pooled = idleDrivers.pollFirst()) != null) {
+            evict(pooled, "pool closed");
+        }
+        System.out.println("[WebDriverPool] Closed. " + metrics);
+    }
+    
+    private PooledDriver takeHealthyIdleDriver(){
+        PooledDriver pooled;
+        while ((pooled = idleDrivers.pollFirst()) != null) {
+            if (resetBrowserState(pooled.driver)) {
+                return pooled;
+            }
+            evict(pooled, "failed health check");
+        }
+        return null;
+    }
+    
+    /**
+     * Clears what the previous scenario left behind, in every origin it visited rather than just the
+     * one it ended on. Any failure here means the session is no longer usable, so this is also the
+     * health check of the driver.
+     *
+     * @return {@code true} if the driver answered every reset command.
+     */
+    private boolean resetBrowserState(WebDriver driver){
+        try {
+            HasCdp cdp = (HasCdp) driver;
+            Set<String> origins = visitedOrigins(driver, cdp);
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            for (String origin : origins) {
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+            }
+            // Session storage and history belong to a tab, so the scenario's tabs are replaced by a blank one
+            Set<String> usedTabs = driver.getWindowHandles();
+            driver.switchTo().newWindow(WindowType.TAB);
+            String blankTab = driver.getWindowHandle();
+            for (String tab : usedTabs) {
+                driver.switchTo().window(tab).close();
+            }
+            driver.switchTo().window(blankTab);
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("[WebDriverPool] Health check failed for idle driver: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * @return The origins in the history of every tab, and those of every cookie domain, e.g. of a single
+     * sign-on page that only redirected back.
+     */
+    private static Set<String> visitedOrigins(WebDriver driver, HasCdp cdp){
+        Set<String> origins = new LinkedHashSet<>();
+        for (String tab : driver.getWindowHandles()) {
+            driver.switchTo().window(tab);
+            if (cdp.executeCdpCommand("Page.getNavigationHistory", Map.of()).get("entries") instanceof List<?> entries) {
+                for (Object entry : entries) {
+                    if (entry instanceof Map<?, ?> page && page.get("url") instanceof String url) {
+                        addOrigin(origins, url);
+                    }
+                }
+            }
+        }
+        if (cdp.executeCdpCommand("Storage.getCookies", Map.of()).get("cookies") instanceof List<?> cookies) {
+            for (Object cookie : cookies) {
+                if (cookie instanceof Map<?, ?> values && values.get("domain") instanceof String domain) {
+                    String host = domain.startsWith(".") ? domain.substring(1) : domain;
+                    addOrigin(origins, "https://" + host);
+                    addOrigin(origins, "http://" + host);
+                }
+            }
+        }
+        return origins;
+    }
+    
+    private static void addOrigin(Set<String> origins, String url){
+        try {
+            URI uri = URI.create(url);
+            if ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) {
+                origins.add(uri.getScheme() + "://" + uri.getRawAuthority());
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a URL with an origin, e.g. about:blank or a data: URL
+        }
+    }
+    
+    private void evict(PooledDriver pooled, String reason){
+        metrics.evictions.increment();
+        System.out.println("[WebDriverPool] Evicting driver after " + pooled.uses + " uses (" + reason + ").");
+        try {
+            pooled.driver.quit();
+        } catch (RuntimeException e) {
+            System.err.println("[WebDriverPool] Failed to quit evicted driver: " + e.getMessage());
+        }
+    }
+    
+    private static class PooledDriver{
+        private final WebDriver driver;
+        private int uses;
+        
+        private PooledDriver(WebDriver driver){
+            this.driver = driver;
+        }
+    }
+    
+    /**
+     * Running counters of the pool, safe to read while scenarios are running. They are registered with the
+     * application's meter registry, so they are exported with the other run metrics.
+     */
+    public static class PoolMetrics{
+        private final Timer leaseWait;
+        private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+        private final Counter creations;
+        private final Counter evictions;
+        
+        private PoolMetrics(MeterRegistry meterRegistry){
+            this.leaseWait = Timer.builder("smartui.driver.lease")
+                .description("Time a scenario waited for a browser from the pool, including starting a new one")
+                .register(meterRegistry);
+            this.creations = Counter.builder("smartui.driver.created")
+                .description("Browsers started by the pool")
+                .register(meterRegistry);
+            this.evictions = Counter.builder("smartui.driver.evicted")
+                .description("Browsers quit by the pool: unhealthy, worn out, not resettable or at shutdown")
+                .register(meterRegistry);
+        }
+        
+        private void recordLease(long waitNanos){
+            leaseWait.record(waitNanos, TimeUnit.NANOSECONDS);
+            maxLeaseWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+        
+        public long getLeases(){
+            return leaseWait.count();
+        }
+        
+        public Duration getAverageLeaseWait(){
+            return Duration.ofNanos((long) leaseWait.mean(TimeUnit.NANOSECONDS));
+        }
+        
+        public Duration getMaxLeaseWait(){
+            return Duration.ofNanos(maxLeaseWaitNanos.get());
+        }
+        
+        public long getCreations(){
+            return (long) creations.count();
+        }
+        
+        public long getEvictions(){
+            return (long) evictions.count();
+        }
+        
+        @Override
+        public String toString(){
+            return "PoolMetrics{" +
+                "leases=" + getLeases() +
+                ", averageLeaseWait=" + getAverageLeaseWait().toMillis() + "ms" +
+                ", maxLeaseWait=" + getMaxLeaseWait().toMillis() + "ms" +
+                ", creations=" + getCreations() +
+                ", evictions=" + getEvictions() +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ayago.smartuitest.executor;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the browser sessions used by the runner. This is the single place where a new
+ * {@link WebDriver} is started; the {@link WebDriverPool} calls it whenever it needs a fresh driver.
+ * With instrumentation enabled, every driver reports its commands to {@link WebDriverCommandMetrics}.
+ * With {@code runner.headless}, browsers are started without a window.
+ */
+@Component
+class WebDriverProvider{
+    
+    private final WebDriverCommandMetrics commandMetrics;
+    private final boolean headless;
+    
+    WebDriverProvider(WebDriverCommandMetrics commandMetrics, RunnerProperties runnerProperties){
+        this.commandMetrics = commandMetrics;
+        this.headless = runnerProperties.getRunner().isHeadless();
+    }
+    
+    public WebDriver create(){
+        WebDriver driver = headless ? new ChromeDriver(new ChromeOptions().addArguments("--headless=new")) : new ChromeDriver();
+        if (!commandMetrics.isEnabled()) {
+            return driver;
+        }
+        return new EventFiringDecorator<>(commandMetrics).decorate(driver);
+    }
+}
@@ -1,5 +1,8 @@
 package com.ayago.smartuitest.testscenario;
 
+import java.io.Serializable;
+
 // Example actions
-public interface Action {
+// Serializable so that parsed scenarios can be persisted by the parse cache
+public interface Action extends Serializable {
 }
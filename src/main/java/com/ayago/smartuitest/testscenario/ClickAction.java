@@ -3,7 +3,11 @@ package com.ayago.smartuitest.testscenario;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.Objects;
+
 public class ClickAction implements Action {
+    private static final long serialVersionUID = 1L;
+    
     @NotNull(message = "ClickAction target cannot be null")
     @NotBlank(message = "ClickAction target cannot be blank")
     private final String target;
@@ -16,6 +20,18 @@ public class ClickAction implements Action {
         return target;
     }
     
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClickAction that)) return false;
+        return Objects.equals(target, that.target);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(target);
+    }
+    
     @Override
     public String toString() {
         return "ClickAction{" +
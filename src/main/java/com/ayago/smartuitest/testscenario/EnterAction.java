@@ -3,7 +3,11 @@ package com.ayago.smartuitest.testscenario;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.Objects;
+
 public class EnterAction implements Action {
+    private static final long serialVersionUID = 1L;
+    
     @NotNull(message = "EnterAction targetField cannot be null")
     @NotBlank(message = "EnterAction targetField cannot be blank")
     private final String targetField;
@@ -25,6 +29,18 @@ public class EnterAction implements Action {
         return value;
     }
     
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EnterAction that)) return false;
+        return Objects.equals(targetField, that.targetField) && Objects.equals(value, that.value);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(targetField, value);
+    }
+    
     @Override
     public String toString() {
         return "EnterAction{" +
@@ -2,10 +2,15 @@ package com.ayago.smartuitest.testscenario;
 
 import jakarta.validation.constraints.NotNull;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class SubmitAction implements Action {
+    private static final long serialVersionUID = 1L;
+    
     @NotNull(message = "SubmitAction fields cannot be null")
+    @SuppressWarnings("serial") // Jackson's LinkedHashMap, serializable for the parse cache
     private final Map<String, String> fields;
     
     public SubmitAction(Map<String, String> fields) {
@@ -16,6 +21,22 @@ public class SubmitAction implements Action {
         return fields;
     }
     
+    /**
+     * Two submits are equal if they fill the same fields with the same values in the same order.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SubmitAction that)) return false;
+        if (fields == null || that.fields == null) return fields == that.fields;
+        return List.copyOf(fields.entrySet()).equals(List.copyOf(that.fields.entrySet()));
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(fields);
+    }
+    
     @Override
     public String toString() {
         return "SubmitAction{" +
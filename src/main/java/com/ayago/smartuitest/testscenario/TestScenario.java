@@ -5,27 +5,50 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.util.CollectionUtils;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Valid
-public class TestScenario {
+public class TestScenario implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
     
     @NotNull(message = "Host cannot be null")
     @NotBlank(message = "Host cannot be blank")
     private final String host;
     
+    // The collections of a scenario are JDK ones (Jackson's, or List.of/Map.of), all serializable,
+    // so that parsed scenarios can be persisted by the parse cache
+    @SuppressWarnings("serial")
     private final Map<String, Feature> features;
     
     @NotNull(message = "Pages cannot be null")
     @Valid
+    @SuppressWarnings("serial")
     private final List<Page> pages;
     
+    @Valid
+    private final Snapshot snapshot;
+    
     public TestScenario(String host, Map<String, Feature> features, List<Page> pages) {
+        this(host, features, pages, null);
+    }
+    
+    /**
+     * @param snapshot Where the browser state is captured for later scenarios; {@code null} for none.
+     * @throws IllegalArgumentException If the snapshot is taken after a page the scenario does not have.
+     */
+    public TestScenario(String host, Map<String, Feature> features, List<Page> pages, Snapshot snapshot) {
+        if (snapshot != null && (pages == null || pages.stream().noneMatch(page -> Objects.equals(page.getName(), snapshot.getAfterPage())))) {
+            throw new IllegalArgumentException("Snapshot is taken after page '" + snapshot.getAfterPage() + "', which the scenario does not have");
+        }
         this.host = host;
         this.features = features;
         this.pages = pages;
+        this.snapshot = snapshot;
     }
     
     public String getHost() {
@@ -40,18 +63,26 @@ public class TestScenario {
         return pages;
     }
     
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+    
     @Override
     public String toString() {
         return "TestScenario{" +
             "host='" + host + '\'' +
             ", features=" + features +
             ", pages=" + pages +
+            ", snapshot=" + snapshot +
             '}';
     }
     
-    public static class Feature {
+    public static class Feature implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
         private final boolean enable;
         private final String name;
+        @SuppressWarnings("serial") // A JDK map, like the other collections of a scenario
         private final Map<String, String> context;
         
         public Feature(boolean enable, Map<String, String> context, String name) {
@@ -72,6 +103,24 @@ public class TestScenario {
             return context;
         }
         
+        /**
+         * Two features are equal if they set the same flag to the same state for the same context,
+         * i.e. if applying one after the other changes nothing.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Feature feature)) return false;
+            return enable == feature.enable &&
+                Objects.equals(name, feature.name) &&
+                Objects.equals(context, feature.context);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(enable, name, context);
+        }
+        
         @Override
         public String toString() {
             return "Feature{" +
@@ -82,13 +131,16 @@ public class TestScenario {
         }
     }
     
-    public static class Page {
+    public static class Page implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
         @NotNull(message = "Page name cannot be null")
         @NotBlank(message = "Page name cannot be blank")
         private final String name;
         
         @NotNull(message = "Page must have at least one expected element")
         @Valid
+        @SuppressWarnings("serial") // A JDK list, like the other collections of a scenario
         private final List<ExpectedElement> expected;
         
         @Valid
@@ -112,6 +164,24 @@ public class TestScenario {
             return action;
         }
         
+        /**
+         * Two pages are equal if they expect the same values and perform the same action, i.e. if they
+         * do the same thing when run from the same browser state.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Page that)) return false;
+            return Objects.equals(name, that.name) &&
+                Objects.equals(expected, that.expected) &&
+                Objects.equals(action, that.action);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, expected, action);
+        }
+        
         @Override
         public String toString() {
             return "Page{" +
@@ -122,7 +192,9 @@ public class TestScenario {
         }
     }
     
-    public static class ExpectedElement {
+    public static class ExpectedElement implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
         @NotNull(message = "Expected target cannot be null")
         @NotBlank(message = "Expected target cannot be blank")
         private final String target;
@@ -144,6 +216,18 @@ public class TestScenario {
             return value;
         }
         
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ExpectedElement that)) return false;
+            return Objects.equals(target, that.target) && Objects.equals(value, that.value);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(target, value);
+        }
+        
         @Override
         public String toString() {
             return "ExpectedElement{" +
@@ -152,7 +236,44 @@ public class TestScenario {
                 '}';
         }
     }
+    
+    /**
+     * Declares the state of the browser after a page, e.g. a login, as a snapshot that later scenarios
+     * with the same host, feature flags and pages up to that point restore instead of running those pages.
+     */
+    public static class Snapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        @NotNull(message = "Snapshot afterPage cannot be null")
+        @NotBlank(message = "Snapshot afterPage cannot be blank")
+        private final String afterPage;
+        
+        private final boolean restore;
+        
+        /**
+         * @param afterPage Name of the page after which the browser state is captured; the first page of that name.
+         * @param restore Whether the scenario starts from a snapshot captured earlier; {@code null} means it does.
+         *                {@code false} always runs the pages and only captures the snapshot, e.g. for a login test.
+         */
+        public Snapshot(String afterPage, Boolean restore) {
+            this.afterPage = afterPage;
+            this.restore = restore == null || restore;
+        }
+        
+        public String getAfterPage() {
+            return afterPage;
+        }
+        
+        public boolean isRestore() {
+            return restore;
+        }
+        
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                "afterPage='" + afterPage + '\'' +
+                ", restore=" + restore +
+                '}';
+        }
+    }
 }
-
-
-
@@ -6,19 +6,49 @@ import com.ayago.smartuitest.testscenario.EnterAction;
 import com.ayago.smartuitest.testscenario.SubmitAction;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * Custom Jackson deserializer for the {@link Action} interface.
  * It determines the concrete Action type based on an "actionType" field
  * in the JSON input and then deserializes to the specific class.
+ * <p>
+ * The action is read as a stream: only the fields preceding "actionType" are buffered, then the buffer
+ * and the rest of the input are bound directly to the concrete class. Scenarios usually start an action
+ * with its type, in which case nothing is buffered at all.
+ * The deserializers of the concrete classes are looked up once, when Jackson contextualizes this deserializer.
  */
-public class ActionDeserializer extends JsonDeserializer<Action> {
+public class ActionDeserializer extends JsonDeserializer<Action> implements ContextualDeserializer {
+    
+    private static final String ACTION_TYPE = "actionType";
+    
+    private final Map<String, JsonDeserializer<Object>> actionDeserializers;
+    
+    public ActionDeserializer() {
+        this(Map.of());
+    }
+    
+    private ActionDeserializer(Map<String, JsonDeserializer<Object>> actionDeserializers) {
+        this.actionDeserializers = actionDeserializers;
+    }
+    
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) throws JsonMappingException {
+        return new ActionDeserializer(Map.of(
+            "Click", ctxt.findContextualValueDeserializer(ctxt.constructType(ClickAction.class), property),
+            "Enter", ctxt.findContextualValueDeserializer(ctxt.constructType(EnterAction.class), property),
+            "Submit", ctxt.findContextualValueDeserializer(ctxt.constructType(SubmitAction.class), property)));
+    }
     
     /**
      * Deserializes JSON content into an instance of a concrete class implementing {@link Action}.
@@ -36,33 +66,81 @@ public class ActionDeserializer extends JsonDeserializer<Action> {
     public Action deserialize(JsonParser jp, DeserializationContext ctxt)
         throws IOException, JsonProcessingException {
         
-        // Get the ObjectMapper from the JsonParser to use its configuration (including MixIns)
-        ObjectMapper mapper = (ObjectMapper) jp.getCodec();
-        // Read the current JSON structure as a tree of JsonNode objects
-        JsonNode node = mapper.readTree(jp);
-        
-        // Check for the presence of the "actionType" field, which acts as our discriminator.
-        JsonNode actionTypeNode = node.get("actionType");
-        if (actionTypeNode == null || !actionTypeNode.isTextual()) {
-            throw ctxt.weirdStringException(null, Action.class,
-                "Missing or invalid 'actionType' field in JSON for Action deserialization. Expected a string.");
+        JsonToken token = jp.currentToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.FIELD_NAME) {
+            // Not an object, so there is no "actionType" to read
+            jp.skipChildren();
+            throw missingActionType(ctxt);
+        }
+        if (token == JsonToken.START_OBJECT) {
+            token = jp.nextToken();
         }
-        String actionType = actionTypeNode.asText();
         
-        // Based on the value of "actionType", deserialize the node into the appropriate concrete class.
-        // The mapper.treeToValue() method will respect any registered MixIns for these concrete classes.
-        switch (actionType) {
-            case "Click":
-                return mapper.treeToValue(node, ClickAction.class);
-            case "Enter":
-                return mapper.treeToValue(node, EnterAction.class);
-            case "Submit":
-                return mapper.treeToValue(node, SubmitAction.class);
-            default:
+        // Fields preceding "actionType" are buffered and replayed to the concrete deserializer
+        TokenBuffer buffer = null;
+        for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+            String fieldName = jp.currentName();
+            jp.nextToken();
+            if (!ACTION_TYPE.equals(fieldName)) {
+                if (buffer == null) {
+                    buffer = ctxt.bufferForInputBuffering(jp);
+                    buffer.writeStartObject();
+                }
+                buffer.writeFieldName(fieldName);
+                buffer.copyCurrentStructure(jp);
+                continue;
+            }
+            if (jp.currentToken() != JsonToken.VALUE_STRING) {
+                skipRemainingFields(jp);
+                throw missingActionType(ctxt);
+            }
+            String actionType = jp.getText();
+            Class<? extends Action> actionClass = actionClassOf(actionType);
+            if (actionClass == null) {
+                skipRemainingFields(jp);
                 // If the actionType is unknown, throw an exception.
                 throw ctxt.weirdStringException(actionType, Action.class,
                     "Unknown actionType '" + actionType + "'. Supported types are Click, Enter, Submit.");
+            }
+            
+            // Bind the remaining fields straight from the input, preceded by the buffered ones if any.
+            // Binding the concrete class respects any registered MixIns.
+            JsonParser actionParser = jp;
+            if (buffer != null) {
+                actionParser = JsonParserSequence.createFlattened(false, buffer.asParser(jp), jp);
+            }
+            actionParser.nextToken();
+            JsonDeserializer<Object> actionDeserializer = actionDeserializers.get(actionType);
+            return actionDeserializer != null
+                ? (Action) actionDeserializer.deserialize(actionParser, ctxt)
+                : ctxt.readValue(actionParser, actionClass);
         }
+        throw missingActionType(ctxt);
+    }
+    
+    private static Class<? extends Action> actionClassOf(String actionType) {
+        return switch (actionType) {
+            case "Click" -> ClickAction.class;
+            case "Enter" -> EnterAction.class;
+            case "Submit" -> SubmitAction.class;
+            default -> null;
+        };
+    }
+    
+    /**
+     * Skips the current value and the remaining fields of the action, so that an error is reported
+     * at the end of the action object, like it was when the action was read as a whole.
+     */
+    private static void skipRemainingFields(JsonParser jp) throws IOException {
+        jp.skipChildren();
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            jp.nextToken();
+            jp.skipChildren();
+        }
+    }
+    
+    private static IOException missingActionType(DeserializationContext ctxt) {
+        return ctxt.weirdStringException(null, Action.class,
+            "Missing or invalid 'actionType' field in JSON for Action deserialization. Expected a string.");
     }
 }
-
@@ -3,23 +3,42 @@ package com.ayago.smartuitest.testscenario.json;
 import com.ayago.smartuitest.testscenario.TestScenario.Feature;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
 
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
 /**
  * Custom Jackson deserializer for a {@code Map<String, TestScenario.Feature>}.
  * This deserializer ensures that the key of each entry in the JSON features map
  * is used as the 'name' property of the corresponding {@link Feature} object.
+ * <p>
+ * The features are read as a stream, without building a tree of the whole object first.
+ * Errors are still reported at the end of the features object, as they were with the tree.
  */
-public class FeaturesDeserializer extends JsonDeserializer<Map<String, Feature>> {
+public class FeaturesDeserializer extends JsonDeserializer<Map<String, Feature>> implements ContextualDeserializer {
+    
+    private final JsonDeserializer<Object> contextDeserializer;
+    
+    public FeaturesDeserializer() {
+        this(null);
+    }
+    
+    private FeaturesDeserializer(JsonDeserializer<Object> contextDeserializer) {
+        this.contextDeserializer = contextDeserializer;
+    }
+    
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) throws JsonMappingException {
+        return new FeaturesDeserializer(ctxt.findContextualValueDeserializer(ctxt.constructType(Map.class), property));
+    }
     
     /**
      * Deserializes a JSON object into a {@code Map<String, Feature>}.
@@ -32,46 +51,67 @@ public class FeaturesDeserializer extends JsonDeserializer<Map<String, Feature>>
      * @throws JsonProcessingException If the JSON content is malformed.
      */
     @Override
+    @SuppressWarnings("unchecked")
     public Map<String, Feature> deserialize(JsonParser jp, DeserializationContext ctxt)
         throws IOException, JsonProcessingException {
         
-        ObjectMapper mapper = (ObjectMapper) jp.getCodec();
-        // Read the entire JSON object that represents the "features" map
-        ObjectNode featuresNode = mapper.readTree(jp);
+        JsonToken token = jp.currentToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.FIELD_NAME) {
+            JsonNodeType found = nodeTypeOf(token);
+            jp.skipChildren();
+            throw ctxt.weirdStringException(null, Map.class,
+                "Expected a JSON object for features, but found " + found);
+        }
+        if (token == JsonToken.START_OBJECT) {
+            token = jp.nextToken();
+        }
         
         Map<String, Feature> featuresMap = new HashMap<>();
         
         // Iterate over each field (entry) in the JSON object for features
-        Iterator<Map.Entry<String, JsonNode>> fieldsIterator = featuresNode.fields();
-        while (fieldsIterator.hasNext()) {
-            Map.Entry<String, JsonNode> entry = fieldsIterator.next();
-            String featureName = entry.getKey(); // This is the "DUMMY_FEATURE" string
-            JsonNode featureValueNode = entry.getValue(); // This is the {"enable": false, "context": {...}} object
+        for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+            String featureName = jp.currentName(); // This is the "DUMMY_FEATURE" string
+            JsonToken featureValue = jp.nextToken(); // This should start the {"enable": false, "context": {...}} object
             
-            if (!featureValueNode.isObject()) {
+            if (featureValue != JsonToken.START_OBJECT) {
+                skipRemainingFields(jp);
                 throw ctxt.weirdStringException(null, Map.class,
-                    "Expected a JSON object for feature '" + featureName + "', but found " + featureValueNode.getNodeType());
+                    "Expected a JSON object for feature '" + featureName + "', but found " + nodeTypeOf(featureValue));
             }
             
-            // Extract 'enable' and 'context' from the featureValueNode
-            JsonNode enableNode = featureValueNode.get("enable");
-            JsonNode contextNode = featureValueNode.get("context");
+            // Extract 'enable' and 'context' from the feature object
+            JsonToken enableToken = null;
+            JsonNodeType contextType = null;
+            Map<String, String> contextMap = new HashMap<>();
+            while (jp.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jp.currentName();
+                JsonToken value = jp.nextToken();
+                if ("enable".equals(fieldName)) {
+                    enableToken = value;
+                } else if ("context".equals(fieldName)) {
+                    contextType = nodeTypeOf(value);
+                    if (value == JsonToken.START_OBJECT) {
+                        // Jackson infers Map<String,String> here, as it did for the tree
+                        contextMap = contextDeserializer != null
+                            ? (Map<String, String>) contextDeserializer.deserialize(jp, ctxt)
+                            : ctxt.readValue(jp, Map.class);
+                        continue;
+                    }
+                }
+                jp.skipChildren();
+            }
             
-            if (enableNode == null || !enableNode.isBoolean()) {
+            if (enableToken != JsonToken.VALUE_TRUE && enableToken != JsonToken.VALUE_FALSE) {
+                skipRemainingFields(jp);
                 throw ctxt.weirdStringException(null, Feature.class,
                     "Missing or invalid 'enable' field (boolean expected) for feature '" + featureName + "'.");
             }
-            boolean enable = enableNode.asBoolean();
+            boolean enable = enableToken == JsonToken.VALUE_TRUE;
             
-            Map<String, String> contextMap = new HashMap<>();
-            if (contextNode != null) {
-                if (!contextNode.isObject()) {
-                    throw ctxt.weirdStringException(null, Feature.class,
-                        "Expected a JSON object for 'context' in feature '" + featureName + "', but found " + contextNode.getNodeType());
-                }
-                // Deserialize the context node into a Map<String, String>
-                // TypeReference could be used for more complex maps, but for Map<String, String>, treeToValue works.
-                contextMap = mapper.treeToValue(contextNode, Map.class); // Jackson can infer Map<String,String> here
+            if (contextType != null && contextType != JsonNodeType.OBJECT) {
+                skipRemainingFields(jp);
+                throw ctxt.weirdStringException(null, Feature.class,
+                    "Expected a JSON object for 'context' in feature '" + featureName + "', but found " + contextType);
             }
             
             // Construct the Feature object using the name from the key, and enable/context from the value
@@ -80,5 +120,31 @@ public class FeaturesDeserializer extends JsonDeserializer<Map<String, Feature>>
         }
         return featuresMap;
     }
+    
+    /**
+     * Skips the current value and the remaining features, so that an error is reported at the end
+     * of the features object.
+     */
+    private static void skipRemainingFields(JsonParser jp) throws IOException {
+        jp.skipChildren();
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            jp.nextToken();
+            jp.skipChildren();
+        }
+    }
+    
+    /**
+     * The type the value starting with the given token has in a tree, as reported in error messages.
+     */
+    private static JsonNodeType nodeTypeOf(JsonToken token) {
+        return switch (token) {
+            case START_OBJECT -> JsonNodeType.OBJECT;
+            case START_ARRAY -> JsonNodeType.ARRAY;
+            case VALUE_STRING -> JsonNodeType.STRING;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> JsonNodeType.NUMBER;
+            case VALUE_TRUE, VALUE_FALSE -> JsonNodeType.BOOLEAN;
+            case VALUE_NULL -> JsonNodeType.NULL;
+            default -> JsonNodeType.POJO;
+        };
+    }
 }
-
@@ -8,25 +8,55 @@ import com.ayago.smartuitest.testscenario.TestScenario;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Parses a TestScenario from a JSON source using Jackson.
  * This parser is configured with MixIns to avoid annotating the POJOs directly
  * and uses a custom deserializer for the polymorphic Action interface.
  * The primary public parsing method is parseJsonFile(String jsonFileName).
+ * With {@code parser.cache.enabled}, unchanged files are served from a {@link ScenarioParseCache}.
  */
 @Component
 @Validated
 public class JsonTestScenarioParser {
     
     private final ObjectMapper objectMapper;
+    private final Timer parseTimer;
+    private final ScenarioParseCache cache;
     
     public JsonTestScenarioParser() {
+        this(Metrics.globalRegistry);
+    }
+    
+    /**
+     * @param meterRegistry Registry for the {@code smartui.scenario.parse} timer.
+     */
+    public JsonTestScenarioParser(MeterRegistry meterRegistry) {
+        this(meterRegistry, new ParserProperties());
+    }
+    
+    /**
+     * @param meterRegistry Registry for the {@code smartui.scenario.parse} timer and the cache counters.
+     * @param parserProperties Configuration of the parse cache.
+     */
+    @Autowired
+    public JsonTestScenarioParser(MeterRegistry meterRegistry, ParserProperties parserProperties) {
+        this.cache = parserProperties.getCache().isEnabled()
+            ? new ScenarioParseCache(parserProperties.getCache(), meterRegistry)
+            : null;
+        this.parseTimer = Timer.builder("smartui.scenario.parse")
+            .description("Time to read and map a scenario file")
+            .register(meterRegistry);
         this.objectMapper = new ObjectMapper();
         
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -35,6 +65,7 @@ public class JsonTestScenarioParser {
         objectMapper.addMixIn(TestScenario.Feature.class, TestScenarioMixIns.FeatureMixIn.class);
         objectMapper.addMixIn(TestScenario.Page.class, TestScenarioMixIns.PageMixIn.class);
         objectMapper.addMixIn(TestScenario.ExpectedElement.class, TestScenarioMixIns.ExpectedElementMixIn.class);
+        objectMapper.addMixIn(TestScenario.Snapshot.class, TestScenarioMixIns.SnapshotMixIn.class);
         
         objectMapper.addMixIn(ClickAction.class, ActionMixIns.ClickActionMixIn.class);
         objectMapper.addMixIn(EnterAction.class, ActionMixIns.EnterActionMixIn.class);
@@ -48,6 +79,7 @@ public class JsonTestScenarioParser {
     /**
      * Parses a TestScenario from a JSON file, given its filename/path.
      * This is the sole public method for parsing TestScenario objects from a file.
+     * A scenario returned from the cache is shared and must not be modified.
      *
      * @param jsonFile The name or path of the JSON file.
      * @return The parsed TestScenario object.
@@ -55,7 +87,12 @@ public class JsonTestScenarioParser {
      * @throws IllegalArgumentException if jsonFileName is null or empty.
      */
     public TestScenario parse(File jsonFile) throws IOException {
-        return parseJsonFileInternal(jsonFile);
+        long start = System.nanoTime();
+        try {
+            return parseJsonFileInternal(jsonFile);
+        } finally {
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
     
     /**
@@ -78,6 +115,9 @@ public class JsonTestScenarioParser {
         if (!jsonFile.canRead()) {
             throw new IOException("Cannot read JSON file (check permissions): " + jsonFile.getAbsolutePath());
         }
+        if (cache != null) {
+            return cache.get(jsonFile, json -> objectMapper.readValue(json, TestScenario.class));
+        }
         return objectMapper.readValue(jsonFile, TestScenario.class);
     }
 }
@@ -0,0 +1,71 @@
+package com.ayago.smartuitest.testscenario.json;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("parser")
+public class ParserProperties {
+    
+    private final Cache cache = new Cache();
+    
+    public Cache getCache() {
+        return cache;
+    }
+    
+    public static class Cache {
+        /**
+         * Keeps parsed scenarios in memory and reuses them while their file is unchanged.
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Number of parsed scenarios held in memory; the least recently used one is evicted first.
+         */
+        private int maxEntries = 256;
+        
+        /**
+         * Confirms an unchanged size and modification time with a hash of the file content. Without it,
+         * a file rewritten with the same size within the timestamp resolution of the file system is not noticed.
+         */
+        private boolean verifyContent = true;
+        
+        /**
+         * Directory where parsed scenarios are persisted, keyed by the hash of their JSON, so that later
+         * runs skip parsing unchanged files. Empty keeps the cache in memory only.
+         */
+        private String directory = "";
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+        
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+        
+        public boolean isVerifyContent() {
+            return verifyContent;
+        }
+        
+        public void setVerifyContent(boolean verifyContent) {
+            this.verifyContent = verifyContent;
+        }
+        
+        public String getDirectory() {
+            return directory;
+        }
+        
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+}
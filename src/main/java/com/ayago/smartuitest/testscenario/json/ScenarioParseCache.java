@@ -0,0 +1,208 @@
+package com.ayago.smartuitest.testscenario.json;
+
+import com.ayago.smartuitest.testscenario.TestScenario;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps parsed scenarios so that unchanged files are not parsed again, e.g. when the same suite is
+ * run repeatedly by a watcher or a long-running process.
+ * <p>
+ * Entries are held in memory per file, least recently used first out, and are valid while the file has
+ * the same size and modification time. With content verification, the hash of the file content confirms
+ * the entry, and a file that was only touched is still served from the cache. With a cache directory,
+ * every parsed scenario is also persisted in Java serialized form under the hash of its JSON, so a later
+ * run (or another file with the same content) skips parsing altogether.
+ * <p>
+ * Cached scenarios are shared between callers and must not be modified.
+ */
+class ScenarioParseCache {
+    
+    /**
+     * Parses the JSON of a scenario; only called on a cache miss.
+     */
+    interface Parser {
+        TestScenario parse(byte[] json) throws IOException;
+    }
+    
+    /**
+     * Bumped whenever the mapping from JSON to the scenario classes changes, so that scenarios
+     * persisted by an older version are parsed again.
+     */
+    private static final int FORMAT_VERSION = 2;
+    
+    private static final String SUFFIX = ".scenario";
+    
+    /**
+     * Only the scenario classes and the JDK types they hold may be read back from the cache directory.
+     */
+    private static final ObjectInputFilter PERSISTED_CLASSES = ObjectInputFilter.Config.createFilter(
+        "maxdepth=32;com.ayago.smartuitest.testscenario.**;java.util.*;java.lang.*;java.math.*;!*");
+    
+    private final Map<Path, Entry> entries;
+    private final boolean verifyContent;
+    private final Path directory;
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    
+    ScenarioParseCache(ParserProperties.Cache properties, MeterRegistry meterRegistry) {
+        int maxEntries = Math.max(1, properties.getMaxEntries());
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.verifyContent = properties.isVerifyContent();
+        String configuredDirectory = properties.getDirectory();
+        this.directory = configuredDirectory == null || configuredDirectory.isBlank() ? null : Path.of(configuredDirectory);
+        this.memoryHits = cacheCounter(meterRegistry, "memory");
+        this.diskHits = cacheCounter(meterRegistry, "disk");
+        this.misses = cacheCounter(meterRegistry, "miss");
+    }
+    
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("smartui.scenario.parse.cache")
+            .description("Scenario lookups in the parse cache, by where the scenario came from")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Returns the scenario of the given file, from the cache if the file is unchanged.
+     *
+     * @param jsonFile The scenario file.
+     * @param parser Parses the file content on a cache miss.
+     * @return The parsed scenario.
+     * @throws IOException If the file cannot be read or parsed.
+     */
+    TestScenario get(File jsonFile, Parser parser) throws IOException {
+        Path path = jsonFile.toPath().toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(path);
+        }
+        boolean unchanged = cached != null && cached.size == size && cached.modified == modified;
+        if (unchanged && !verifyContent) {
+            memoryHits.increment();
+            return cached.scenario;
+        }
+        
+        byte[] json = Files.readAllBytes(path);
+        String hash = sha256(json);
+        if (cached != null && cached.hash.equals(hash)) {
+            memoryHits.increment();
+            if (!unchanged) {
+                // Touched but not changed
+                remember(path, new Entry(json.length, modified, hash, cached.scenario));
+            }
+            return cached.scenario;
+        }
+        
+        TestScenario scenario = readPersisted(hash);
+        if (scenario != null) {
+            diskHits.increment();
+        } else {
+            misses.increment();
+            scenario = parser.parse(json);
+            persist(hash, scenario);
+        }
+        remember(path, new Entry(json.length, modified, hash, scenario));
+        return scenario;
+    }
+    
+    private void remember(Path path, Entry entry) {
+        synchronized (entries) {
+            entries.put(path, entry);
+        }
+    }
+    
+    private TestScenario readPersisted(String hash) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(hash + SUFFIX);
+        try (InputStream in = Files.newInputStream(file);
+             ObjectInputStream objects = new ObjectInputStream(in)) {
+            objects.setObjectInputFilter(PERSISTED_CLASSES);
+            if (objects.readInt() != FORMAT_VERSION) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return (TestScenario) objects.readObject();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Written by an incompatible version or corrupted; parse again and replace it
+            System.err.println("ScenarioParseCache: Ignoring unreadable cache file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private void persist(String hash, TestScenario scenario) {
+        if (directory == null) {
+            return;
+        }
+        Path file = directory.resolve(hash + SUFFIX);
+        Path partial = null;
+        try {
+            Files.createDirectories(directory);
+            // Write next to the target and move, so that a concurrent reader never sees a partial file
+            partial = Files.createTempFile(directory, hash, ".tmp");
+            try (OutputStream out = Files.newOutputStream(partial);
+                 ObjectOutputStream objects = new ObjectOutputStream(out)) {
+                objects.writeInt(FORMAT_VERSION);
+                objects.writeObject(scenario);
+            }
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("ScenarioParseCache: Failed to persist parsed scenario to " + file + ": " + e.getMessage());
+            deleteQuietly(partial);
+        }
+    }
+    
+    private static void deleteQuietly(Path partial) {
+        if (partial == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException ignored) {
+            // Left behind; it is never read as a cache entry
+        }
+    }
+    
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private record Entry(long size, long modified, String hash, TestScenario scenario) {
+    }
+}
@@ -5,6 +5,7 @@ import com.ayago.smartuitest.testscenario.Action;
 import com.ayago.smartuitest.testscenario.TestScenario.ExpectedElement;
 import com.ayago.smartuitest.testscenario.TestScenario.Feature;
 import com.ayago.smartuitest.testscenario.TestScenario.Page;
+import com.ayago.smartuitest.testscenario.TestScenario.Snapshot;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -25,6 +26,7 @@ public abstract class TestScenarioMixIns{
      * @param host The host URL for the test scenario.
      * @param features A map of features, where the key is the feature name.
      * @param pages A list of pages in the test scenario.
+     * @param snapshot The optional browser state snapshot of the scenario.
      */
     @JsonCreator
     public TestScenarioMixIns(
@@ -32,7 +34,8 @@ public abstract class TestScenarioMixIns{
         @JsonProperty("features")
         @JsonDeserialize(using = FeaturesDeserializer.class)
         Map<String, Feature> features,
-        @JsonProperty("pages") List<Page> pages) {
+        @JsonProperty("pages") List<Page> pages,
+        @JsonProperty("snapshot") Snapshot snapshot) {
         // This constructor is just for Jackson's benefit to know the mapping.
         // The actual TestScenario constructor will be called.
     }
@@ -95,4 +98,24 @@ public abstract class TestScenarioMixIns{
             // The actual TestScenario.Page constructor will be called.
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Jackson MixIn for the {@link Snapshot} class.
+     */
+    public abstract static class SnapshotMixIn{
+        /**
+         * MixIn constructor for Jackson to use when deserializing Snapshot.
+         *
+         * @param afterPage The name of the page after which the browser state is captured.
+         * @param restore   Whether the scenario starts from the snapshot; absent means it does.
+         */
+        @JsonCreator
+        public SnapshotMixIn(
+            @JsonProperty("afterPage") String afterPage,
+            @JsonProperty("restore") Boolean restore
+        ){
+            // This constructor is for Jackson's mapping.
+            // The actual TestScenario.Snapshot constructor will be called.
+        }
+    }
+}
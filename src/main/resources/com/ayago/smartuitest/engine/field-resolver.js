@@ -0,0 +1,150 @@
+/*
+ * In-browser counterpart of WebDriverElementResolver. Evaluates the same five strategies, in the
+ * same priority order and with the same XPath expressions, but inside the page so that resolving a
+ * field costs a single WebDriver round trip instead of one per strategy.
+ *
+ * smartUiResolveField(fieldName) returns [element, strategyIndex] for the first strategy that
+ * matches (strategyIndex is 1-based, see ResolutionStrategy), or null if no strategy matches.
+ */
+function smartUiXPathLiteral(value) {
+    if (value.indexOf("'") < 0) {
+        return "'" + value + "'";
+    }
+    if (value.indexOf('"') < 0) {
+        return '"' + value + '"';
+    }
+    return "concat('" + value.split("'").join("', \"'\", '") + "')";
+}
+
+function smartUiFirst(xpath) {
+    return document.evaluate(xpath, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+}
+
+function smartUiResolveField(fieldName) {
+    var LOWER = "translate(@%s, 'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz')";
+    var name = smartUiXPathLiteral(fieldName);
+    var attr = smartUiXPathLiteral(fieldName.toLowerCase().replace(/ /g, ''));
+    var element;
+
+    // Strategy 1: label with exact text, followed through its 'for' attribute
+    var label = smartUiFirst("//label[normalize-space(.)=" + name + "]");
+    if (label) {
+        var forId = label.getAttribute('for');
+        if (forId) {
+            element = document.getElementById(forId);
+            if (element) {
+                return [element, 1];
+            }
+        }
+    }
+
+    // Strategy 2: placeholder, or case-insensitive name or id
+    element = smartUiFirst(
+        "//input[@placeholder=" + name + "] | " +
+        "//textarea[@placeholder=" + name + "] | " +
+        "//input[" + LOWER.replace('%s', 'name') + "=" + attr + "] | " +
+        "//textarea[" + LOWER.replace('%s', 'name') + "=" + attr + "] | " +
+        "//input[" + LOWER.replace('%s', 'id') + "=" + attr + "] | " +
+        "//textarea[" + LOWER.replace('%s', 'id') + "=" + attr + "]");
+    if (element) {
+        return [element, 2];
+    }
+
+    // Strategy 3: label containing the text, followed by an input or textarea sibling
+    element = smartUiFirst(
+        "//label[contains(normalize-space(.)," + name + ")]/following-sibling::input[1] | " +
+        "//label[contains(normalize-space(.)," + name + ")]/following-sibling::textarea[1]");
+    if (element) {
+        return [element, 3];
+    }
+
+    // Strategy 4: exact title attribute
+    element = smartUiFirst("//*[@title=" + name + "]");
+    if (element) {
+        return [element, 4];
+    }
+
+    // Strategy 5: exact aria-label attribute
+    element = smartUiFirst("//*[@aria-label=" + name + "]");
+    if (element) {
+        return [element, 5];
+    }
+    return null;
+}
+
+/*
+ * Resolves every name in fieldNames and reads its value the way WebElement.getAttribute("value") does
+ * (the 'value' property, else the 'value' attribute).
+ *
+ * Returns { values: { name: { found, value, error } } }.
+ */
+function smartUiReadFieldValues(fieldNames) {
+    var values = {};
+    for (var i = 0; i < fieldNames.length; i++) {
+        var fieldName = fieldNames[i];
+        try {
+            var match = smartUiResolveField(fieldName);
+            if (!match) {
+                values[fieldName] = { found: false, error: 'Field not found: ' + fieldName + ' (ScriptedElementResolver)' };
+                continue;
+            }
+            var value = match[0].value;
+            if (value === undefined || value === null) {
+                value = match[0].getAttribute('value');
+            }
+            values[fieldName] = { found: true, value: value === null ? null : String(value) };
+        } catch (e) {
+            values[fieldName] = { found: false, error: 'Failed to read field ' + fieldName + ': ' + e };
+        }
+    }
+    return { values: values };
+}
+
+/*
+ * Sets the value of a form control the way a user edit would be observed by the page. The value is
+ * written through the native prototype setter, so frameworks that track the last value on the
+ * element itself (React) notice the change, then input and change events are dispatched.
+ */
+function smartUiSetValue(element, value) {
+    var prototype = element instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype
+        : element instanceof HTMLSelectElement ? HTMLSelectElement.prototype
+        : element instanceof HTMLInputElement ? HTMLInputElement.prototype
+        : null;
+    element.focus();
+    if (prototype) {
+        Object.getOwnPropertyDescriptor(prototype, 'value').set.call(element, value);
+    } else if (element.isContentEditable) {
+        element.textContent = value;
+    } else {
+        throw new Error('element <' + element.tagName.toLowerCase() + '> is not editable');
+    }
+    element.dispatchEvent(new Event('input', { bubbles: true }));
+    element.dispatchEvent(new Event('change', { bubbles: true }));
+    element.blur();
+}
+
+/*
+ * Resolves and fills every [fieldName, value] pair in order.
+ *
+ * Returns { results: { name: { filled, error } }, lastFilled: element or null }.
+ */
+function smartUiFillFields(fields) {
+    var results = {};
+    var lastFilled = null;
+    for (var i = 0; i < fields.length; i++) {
+        var fieldName = fields[i][0];
+        try {
+            var match = smartUiResolveField(fieldName);
+            if (!match) {
+                results[fieldName] = { filled: false, error: 'Field not found: ' + fieldName + ' (ScriptedElementResolver)' };
+                continue;
+            }
+            smartUiSetValue(match[0], fields[i][1]);
+            results[fieldName] = { filled: true };
+            lastFilled = match[0];
+        } catch (e) {
+            results[fieldName] = { filled: false, error: String(e) };
+        }
+    }
+    return { results: results, lastFilled: lastFilled };
+}
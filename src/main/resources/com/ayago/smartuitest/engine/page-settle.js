@@ -0,0 +1,66 @@
+/*
+ * Waits inside the browser until the page is quiet and reports back through the async callback.
+ *
+ * The first call on a document installs a MutationObserver and wraps fetch and XMLHttpRequest so
+ * that DOM changes and in-flight requests update a shared state object. The page counts as settled
+ * once the document is loaded, no tracked request is pending and nothing changed for quietMs.
+ * Requests started before the tracker was installed are not counted; the quiet window covers them.
+ *
+ * arguments: quietMs, timeoutMs, callback
+ * result: { settled, pending, readyState, waitedMs }
+ */
+var quietMs = arguments[0];
+var timeoutMs = arguments[1];
+var done = arguments[arguments.length - 1];
+var w = window;
+
+if (!w.__smartUiSettle) {
+    var state = { lastChange: Date.now(), pending: 0 };
+    var touch = function () { state.lastChange = Date.now(); };
+    new MutationObserver(touch).observe(document, {
+        childList: true, subtree: true, attributes: true, characterData: true
+    });
+    if (w.fetch) {
+        var originalFetch = w.fetch;
+        w.fetch = function () {
+            state.pending++;
+            touch();
+            return originalFetch.apply(this, arguments).finally(function () {
+                state.pending--;
+                touch();
+            });
+        };
+    }
+    var originalSend = XMLHttpRequest.prototype.send;
+    XMLHttpRequest.prototype.send = function () {
+        state.pending++;
+        touch();
+        this.addEventListener('loadend', function () {
+            state.pending--;
+            touch();
+        });
+        return originalSend.apply(this, arguments);
+    };
+    w.__smartUiSettle = state;
+}
+
+var settle = w.__smartUiSettle;
+var start = Date.now();
+
+function check() {
+    var now = Date.now();
+    // The quiet window always starts after this call, so an action's effects get the chance to begin
+    var quietSince = Math.max(settle.lastChange, start);
+    var loaded = document.readyState === 'complete';
+    if (loaded && settle.pending <= 0 && now - quietSince >= quietMs) {
+        done({ settled: true, pending: 0, readyState: document.readyState, waitedMs: now - start });
+    } else if (now - start >= timeoutMs) {
+        done({ settled: false, pending: settle.pending, readyState: document.readyState, waitedMs: now - start });
+    } else {
+        // Wake up exactly when the current quiet window would end; any change pushes it further out
+        var untilQuiet = loaded && settle.pending <= 0 ? quietMs - (now - quietSince) : quietMs;
+        setTimeout(check, Math.max(10, Math.min(untilQuiet, timeoutMs - (now - start))));
+    }
+}
+
+check();
@@ -0,0 +1,59 @@
+package com.ayago.smartuitest.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineMetricsTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Should time a field resolution by strategy and record it as a JFR event with the bundled settings")
+    void fieldResolved_recordsTimerAndJfrEvent() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EngineMetrics metrics = new EngineMetrics(registry);
+        
+        Configuration configuration;
+        try (Reader settings = new InputStreamReader(
+            EngineMetricsTest.class.getResourceAsStream("/jfr/smart-ui-test.jfc"), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(settings);
+        }
+        Path dump = tempDir.resolve("engine.jfr");
+        try (Recording recording = new Recording(configuration)) {
+            recording.enable("com.ayago.smartuitest.ResolveField").withThreshold(Duration.ZERO);
+            recording.start();
+            metrics.fieldResolved(metrics.startResolve("Email"), ScriptedElementResolver.NAME, ResolutionStrategy.TITLE);
+            metrics.fieldResolved(metrics.startResolve("Missing"), ScriptedElementResolver.NAME, null);
+            recording.stop();
+            recording.dump(dump);
+        }
+        
+        assertEquals(1, registry.get(EngineMetrics.RESOLVE_FIELD).tag("strategy", "TITLE").timer().count());
+        assertEquals(1, registry.get(EngineMetrics.RESOLVE_FIELD).tag("strategy", EngineMetrics.NOT_FOUND).timer().count());
+        
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+            .filter(event -> event.getEventType().getName().equals("com.ayago.smartuitest.ResolveField"))
+            .toList();
+        assertEquals(2, events.size());
+        RecordedEvent found = events.stream().filter(event -> "Email".equals(event.getString("fieldName"))).findFirst().orElseThrow();
+        assertEquals(ResolutionStrategy.TITLE.getIndex(), found.getInt("strategyIndex"));
+        assertTrue(found.getBoolean("found"));
+    }
+}
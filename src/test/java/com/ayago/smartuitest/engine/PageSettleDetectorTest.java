@@ -0,0 +1,105 @@
+package com.ayago.smartuitest.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class PageSettleDetectorTest {
+    
+    private WebDriver driver;
+    private JavascriptExecutor javascriptExecutor;
+    private EngineProperties.PageSettle properties;
+    
+    @BeforeEach
+    void setUp() {
+        driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        javascriptExecutor = (JavascriptExecutor) driver;
+        properties = new EngineProperties.PageSettle();
+        properties.setTimeout(Duration.ofSeconds(2));
+    }
+    
+    @Test
+    @DisplayName("Should wait with a single script execution when the page settles")
+    void awaitSettled_quietPage_returnsAfterOneScript() {
+        when(javascriptExecutor.executeAsyncScript(anyString(), any(), any()))
+            .thenReturn(Map.of("settled", true, "readyState", "complete"));
+        
+        new PageSettleDetector(properties).awaitSettled(driver);
+        
+        verify(javascriptExecutor, times(1)).executeAsyncScript(anyString(), any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should wait again on the new document when the page navigated while waiting")
+    void awaitSettled_documentUnloaded_waitsOnNewDocument() {
+        when(javascriptExecutor.executeAsyncScript(anyString(), any(), any()))
+            .thenThrow(new JavascriptException("javascript error: document unloaded while waiting for result"))
+            .thenReturn(Map.of("settled", true, "readyState", "complete"));
+        
+        new PageSettleDetector(properties).awaitSettled(driver);
+        
+        verify(javascriptExecutor, times(2)).executeAsyncScript(anyString(), any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should give up after a limited number of waits when the document keeps being replaced")
+    void awaitSettled_documentKeepsUnloading_throwsTimeoutAfterRetries() {
+        when(javascriptExecutor.executeAsyncScript(anyString(), any(), any()))
+            .thenThrow(new JavascriptException("javascript error: document unloaded while waiting for result"));
+        
+        assertThrows(TimeoutException.class, () -> new PageSettleDetector(properties).awaitSettled(driver));
+        
+        verify(javascriptExecutor, times(6)).executeAsyncScript(anyString(), any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should fail at once when the browser session is gone")
+    void awaitSettled_sessionGone_rethrowsWithoutRetry() {
+        NoSuchSessionException sessionGone = new NoSuchSessionException("invalid session id");
+        when(javascriptExecutor.executeAsyncScript(anyString(), any(), any())).thenThrow(sessionGone);
+        
+        NoSuchSessionException thrown = assertThrows(NoSuchSessionException.class,
+            () -> new PageSettleDetector(properties).awaitSettled(driver));
+        
+        assertSame(sessionGone, thrown);
+        verify(javascriptExecutor, times(1)).executeAsyncScript(anyString(), any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should fail when the page is still loading at the timeout")
+    void awaitSettled_stillLoading_throwsTimeout() {
+        when(javascriptExecutor.executeAsyncScript(anyString(), any(), any()))
+            .thenReturn(Map.of("settled", false, "readyState", "loading", "pending", 1L));
+        
+        assertThrows(TimeoutException.class, () -> new PageSettleDetector(properties).awaitSettled(driver));
+    }
+    
+    @Test
+    @DisplayName("Should not touch the browser when disabled")
+    void awaitSettled_disabled_doesNothing() {
+        properties.setEnabled(false);
+        
+        new PageSettleDetector(properties).awaitSettled(driver);
+        
+        verify(javascriptExecutor, never()).executeAsyncScript(anyString(), any(), any());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ayago.smartuitest.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ScriptedElementResolverTest {
+    
+    private WebDriver driver;
+    private JavascriptExecutor javascriptExecutor;
+    private ScriptedElementResolver resolver;
+    
+    @BeforeEach
+    void setUp() {
+        driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        javascriptExecutor = (JavascriptExecutor) driver;
+        resolver = new ScriptedElementResolver(driver);
+    }
+    
+    @Test
+    @DisplayName("Should resolve a field in a single script execution without findElement calls")
+    void resolveField_match_returnsElementFromScript() {
+        WebElement element = mock(WebElement.class);
+        when(javascriptExecutor.executeScript(anyString(), eq("Email"))).thenReturn(List.of(element, 3L));
+        
+        assertSame(element, resolver.resolveField("Email"));
+        
+        verify(javascriptExecutor, times(1)).executeScript(anyString(), eq("Email"));
+        verify(driver, never()).findElement(any(By.class));
+    }
+    
+    @Test
+    @DisplayName("Should fail with the resolver's not-found message when no strategy matches")
+    void resolveField_noMatch_throwsRuntimeException() {
+        when(javascriptExecutor.executeScript(anyString(), eq("Missing"))).thenReturn(null);
+        
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> resolver.resolveField("Missing"));
+        
+        assertThat(exception.getMessage(), containsString("Field not found: Missing"));
+    }
+    
+    @Test
+    @DisplayName("Should fall back to sequential resolution when the script cannot run")
+    void resolveField_scriptError_fallsBackToSequentialResolution() {
+        WebElement element = mock(WebElement.class);
+        WebElement label = mock(WebElement.class);
+        when(javascriptExecutor.executeScript(anyString(), eq("Email"))).thenThrow(new JavascriptException("XPathResult is not defined"));
+        when(driver.findElement(any(By.class))).thenReturn(label, element);
+        when(label.getAttribute("for")).thenReturn("email");
+        
+        assertSame(element, resolver.resolveField("Email"));
+        verify(driver, times(1)).findElement(By.id("email"));
+    }
+    
+    @Test
+    @DisplayName("Should record the failed script attempt before the sequential resolver records its own")
+    void resolveField_scriptError_recordsFallbackAttempt() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        resolver = new ScriptedElementResolver(driver, new EngineMetrics(registry));
+        WebElement element = mock(WebElement.class);
+        when(javascriptExecutor.executeScript(anyString(), eq("Email"))).thenThrow(new JavascriptException("XPathResult is not defined"));
+        when(driver.findElement(any(By.class))).thenReturn(element);
+        
+        resolver.resolveField("Email");
+        
+        assertEquals(1, registry.get(EngineMetrics.RESOLVE_FIELD)
+            .tags("resolver", ScriptedElementResolver.NAME, "strategy", EngineMetrics.FALLBACK).timer().count());
+        assertEquals(1, registry.get(EngineMetrics.RESOLVE_FIELD)
+            .tags("resolver", WebDriverElementResolver.NAME).timer().count());
+    }
+    
+    @Test
+    @DisplayName("Should ship the resolver library with the script")
+    void resolveFieldScript_containsResolverLibrary() {
+        assertThat(FieldResolverScript.RESOLVE_FIELD, containsString("function smartUiResolveField(fieldName)"));
+    }
+}
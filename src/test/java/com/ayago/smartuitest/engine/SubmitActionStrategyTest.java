@@ -0,0 +1,122 @@
+package com.ayago.smartuitest.engine;
+
+import com.ayago.smartuitest.testscenario.SubmitAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Interactive;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+class SubmitActionStrategyTest {
+    
+    @Mock
+    private ElementResolver resolver;
+    
+    @Mock
+    private Runnable executeBefore;
+    
+    private JavascriptExecutor javascriptExecutor;
+    private SubmitActionStrategy strategy;
+    
+    @BeforeEach
+    void setUp() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class, Interactive.class));
+        javascriptExecutor = (JavascriptExecutor) driver;
+        when(resolver.underlyingDriver()).thenReturn(driver);
+        EngineProperties engineProperties = new EngineProperties();
+        engineProperties.getSubmit().setFastFill(true);
+        strategy = new SubmitActionStrategy(engineProperties);
+    }
+    
+    private static SubmitAction submit() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("Email", "alice@example.com");
+        fields.put("Nickname", null);
+        fields.put("Password", "secret");
+        return new SubmitAction(fields);
+    }
+    
+    @Test
+    @DisplayName("Should fill the fillable fields in one script and submit the form of the last field it filled")
+    void execute_fastFill_submitsLastFilledElement() {
+        WebElement password = mock(WebElement.class);
+        when(javascriptExecutor.executeScript(eq(FieldResolverScript.FILL_FIELDS), any())).thenReturn(Map.of(
+            "results", Map.of(
+                "Email", Map.of("filled", false, "error", "Field not found: Email"),
+                "Password", Map.of("filled", true)),
+            "lastFilled", password));
+        
+        strategy.execute(submit(), executeBefore, resolver);
+        
+        // The field without a value is skipped, the others are sent as [name, value] pairs
+        verify(javascriptExecutor).executeScript(FieldResolverScript.FILL_FIELDS,
+            List.of(List.of("Email", "alice@example.com"), List.of("Password", "secret")));
+        verify(executeBefore).run();
+        verify(password).submit();
+        verify(resolver, never()).resolveField(any());
+    }
+    
+    @Test
+    @DisplayName("Should not submit when the script reports that no field was filled")
+    void execute_fastFillNothingFilled_doesNotSubmit() {
+        when(javascriptExecutor.executeScript(eq(FieldResolverScript.FILL_FIELDS), any())).thenReturn(Map.of(
+            "results", Map.of("Email", Map.of("filled", false, "error", "Field not found: Email"))));
+        
+        strategy.execute(submit(), executeBefore, resolver);
+        
+        verify(executeBefore, never()).run();
+        verify(resolver, never()).resolveField(any());
+    }
+    
+    @Test
+    @DisplayName("Should fill the fields one by one when the fill script fails")
+    void execute_fastFillScriptError_fillsFieldsOneByOne() {
+        WebElement email = mock(WebElement.class);
+        WebElement password = mock(WebElement.class);
+        when(javascriptExecutor.executeScript(eq(FieldResolverScript.FILL_FIELDS), any()))
+            .thenThrow(new JavascriptException("XPathResult is not defined"));
+        when(resolver.resolveField("Email")).thenReturn(email);
+        when(resolver.resolveField("Password")).thenReturn(password);
+        
+        strategy.execute(submit(), executeBefore, resolver);
+        
+        verify(email).sendKeys("alice@example.com");
+        verify(password).sendKeys("secret");
+        verify(password).submit();
+        verify(email, never()).submit();
+    }
+    
+    @Test
+    @DisplayName("Should fill the fields one by one when the fill script returns an unexpected result")
+    void execute_fastFillUnexpectedResult_fillsFieldsOneByOne() {
+        WebElement email = mock(WebElement.class);
+        WebElement password = mock(WebElement.class);
+        when(javascriptExecutor.executeScript(eq(FieldResolverScript.FILL_FIELDS), any())).thenReturn(List.of());
+        when(resolver.resolveField("Email")).thenReturn(email);
+        when(resolver.resolveField("Password")).thenReturn(password);
+        
+        strategy.execute(submit(), executeBefore, resolver);
+        
+        verify(email).sendKeys("alice@example.com");
+        verify(password).submit();
+    }
+}
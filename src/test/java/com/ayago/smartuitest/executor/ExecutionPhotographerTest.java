@@ -0,0 +1,315 @@
+package com.ayago.smartuitest.executor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ExecutionPhotographerTest {
+    
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+    
+    @TempDir
+    Path tempDir;
+    
+    private WebDriver screenshotDriver() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(TakesScreenshot.class));
+        when(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES)).thenReturn(PNG);
+        return driver;
+    }
+    
+    private List<Path> filesIn(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return List.of();
+        }
+        try (Stream<Path> listing = Files.list(folder)) {
+            return listing.sorted().toList();
+        }
+    }
+    
+    /**
+     * Holds the writer thread in the write of the first screenshot until released, and records the
+     * thread that wrote every screenshot.
+     */
+    private static class BlockedStore implements ScreenshotStore {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Map<String, Thread> writtenBy = new ConcurrentHashMap<>();
+        
+        @Override
+        public Path write(Screenshot screenshot) throws IOException {
+            if (screenshot.getFileName().equals("first.png")) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            writtenBy.put(screenshot.getFileName(), Thread.currentThread());
+            return Path.of(screenshot.getFileName());
+        }
+    }
+    
+    /**
+     * Fills a writer with a queue of one: the first screenshot blocks the writer thread and the second
+     * takes the only queue slot, so the third one is up to the backpressure policy.
+     */
+    private ScreenshotWriter fullWriter(RunnerProperties.ScreenShot.Backpressure backpressure, BlockedStore store) throws InterruptedException {
+        ScreenshotWriter writer = new ScreenshotWriter(1, backpressure, store, Thread::new);
+        writer.submit(screenshot("first.png"));
+        assertTrue(store.writing.await(5, TimeUnit.SECONDS));
+        writer.submit(screenshot("second.png"));
+        return writer;
+    }
+    
+    private Screenshot screenshot(String fileName) {
+        return new Screenshot(tempDir, "scenario.json", fileName, PNG);
+    }
+    
+    @Test
+    @DisplayName("Should drop and count a screenshot when the queue is full under the DROP policy")
+    void backpressureDrop_fullQueue_dropsAndCounts() throws Exception {
+        BlockedStore store = new BlockedStore();
+        try (ScreenshotWriter writer = fullWriter(RunnerProperties.ScreenShot.Backpressure.DROP, store)) {
+            writer.submit(screenshot("third.png"));
+            assertEquals(1, writer.getDropped());
+            
+            store.release.countDown();
+            writer.flush();
+            
+            assertEquals(2, writer.getWritten());
+            assertFalse(store.writtenBy.containsKey("third.png"));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should write a screenshot on the capturing thread when the queue is full under the CALLER_RUNS policy")
+    void backpressureCallerRuns_fullQueue_writesOnCallingThread() throws Exception {
+        BlockedStore store = new BlockedStore();
+        try (ScreenshotWriter writer = fullWriter(RunnerProperties.ScreenShot.Backpressure.CALLER_RUNS, store)) {
+            writer.submit(screenshot("third.png"));
+            // Written before the writer thread got past the first screenshot
+            assertSame(Thread.currentThread(), store.writtenBy.get("third.png"));
+            
+            store.release.countDown();
+            writer.flush();
+            
+            assertEquals(3, writer.getWritten());
+            assertEquals(0, writer.getDropped());
+            assertNotSame(Thread.currentThread(), store.writtenBy.get("first.png"));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should make the capturing thread wait for a queue slot when the queue is full under the BLOCK policy")
+    void backpressureBlock_fullQueue_waitsForSlot() throws Exception {
+        BlockedStore store = new BlockedStore();
+        try (ScreenshotWriter writer = fullWriter(RunnerProperties.ScreenShot.Backpressure.BLOCK, store)) {
+            CompletableFuture<Void> third = CompletableFuture.runAsync(() -> writer.submit(screenshot("third.png")));
+            Thread.sleep(200);
+            assertFalse(third.isDone());
+            
+            store.release.countDown();
+            third.get(5, TimeUnit.SECONDS);
+            writer.flush();
+            
+            assertEquals(3, writer.getWritten());
+            assertEquals(0, writer.getDropped());
+            assertNotSame(Thread.currentThread(), store.writtenBy.get("third.png"));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should complete the write of a screenshot while a screenshot submitted after it is still being written")
+    void submit_laterWriteBlocked_earlierWriteCompletes() throws Exception {
+        BlockedStore store = new BlockedStore();
+        try (ScreenshotWriter writer = new ScreenshotWriter(4, RunnerProperties.ScreenShot.Backpressure.BLOCK, store, Thread::new)) {
+            CompletableFuture<Void> own = writer.submit(screenshot("own.png"));
+            own.get(5, TimeUnit.SECONDS);
+            CompletableFuture<Void> other = writer.submit(screenshot("first.png"));
+            assertTrue(store.writing.await(5, TimeUnit.SECONDS));
+            
+            // The other write is still pending, so flush() would block, but the first one is done
+            assertTrue(own.isDone());
+            assertFalse(other.isDone());
+            
+            store.release.countDown();
+            other.get(5, TimeUnit.SECONDS);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should have the screenshots of a completed scenario on disk once its writes are awaited")
+    void completeScenario_thenAwaitWrites_writesScenarioScreenshots() throws Exception {
+        WebDriver first = screenshotDriver();
+        WebDriver second = screenshotDriver();
+        Path folder = tempDir.resolve("screenshots");
+        
+        try (ExecutionPhotographer photographer = new ExecutionPhotographer(new RunnerProperties())) {
+            photographer.beginScenario(first, "orders.json");
+            photographer.beginScenario(second, "profile.json");
+            photographer.takeScreenshot(first, "Orders", 0, folder.toString());
+            photographer.takeScreenshot(first, "Orders", 1, folder.toString());
+            
+            photographer.awaitWrites(photographer.completeScenario(first, false));
+            
+            assertEquals(2, filesIn(folder).size());
+            // A scenario without screenshots has nothing to wait for
+            assertTrue(photographer.completeScenario(second, false).isDone());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should write captured screenshots in the background and have them on disk after flush")
+    void takeScreenshot_thenFlush_writesPng() throws Exception {
+        WebDriver driver = screenshotDriver();
+        Path folder = tempDir.resolve("screenshots");
+        
+        try (ExecutionPhotographer photographer = new ExecutionPhotographer(new RunnerProperties())) {
+            photographer.takeScreenshot(driver, "Login Page", 0, folder.toString());
+            photographer.flush();
+            
+            List<Path> files = filesIn(folder);
+            assertEquals(1, files.size());
+            assertTrue(files.getFirst().getFileName().toString().startsWith("Login_Page_page0_"));
+            assertArrayEquals(PNG, Files.readAllBytes(files.getFirst()));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should keep both screenshots when two scenarios capture the same page name at the same time")
+    void takeScreenshot_samePageNameTwice_writesBoth() throws Exception {
+        WebDriver first = screenshotDriver();
+        WebDriver second = screenshotDriver();
+        Path folder = tempDir.resolve("screenshots");
+        
+        try (ExecutionPhotographer photographer = new ExecutionPhotographer(new RunnerProperties())) {
+            photographer.beginScenario(first, "orders.json");
+            photographer.beginScenario(second, "profile.json");
+            photographer.takeScreenshot(first, "Login-On_Page", 0, folder.toString());
+            photographer.takeScreenshot(second, "Login-On_Page", 0, folder.toString());
+            photographer.flush();
+            
+            assertEquals(2, filesIn(folder).size());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should keep only the last screenshots of a scenario and write them when it fails")
+    void ringOnFailure_failedScenario_writesLastScreenshots() throws Exception {
+        WebDriver driver = screenshotDriver();
+        Path folder = tempDir.resolve("screenshots");
+        RunnerProperties runnerProperties = new RunnerProperties();
+        runnerProperties.getScreenShot().setMode(RunnerProperties.ScreenShot.Mode.RING_ON_FAILURE);
+        runnerProperties.getScreenShot().setRingSize(2);
+        
+        try (ExecutionPhotographer photographer = new ExecutionPhotographer(runnerProperties)) {
+            photographer.beginScenario(driver, "scenario.json");
+            for (int page = 0; page < 3; page++) {
+                photographer.takeScreenshot(driver, "Page", page, folder.toString());
+            }
+            photographer.flush();
+            assertTrue(filesIn(folder).isEmpty());
+            
+            photographer.completeScenario(driver, true);
+            photographer.flush();
+            
+            List<Path> files = filesIn(folder);
+            assertEquals(2, files.size());
+            assertTrue(files.get(0).getFileName().toString().startsWith("Page_page1_"));
+            assertTrue(files.get(1).getFileName().toString().startsWith("Page_page2_"));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should not write ring screenshots of a passing scenario")
+    void ringOnFailure_passedScenario_writesNothing() throws Exception {
+        WebDriver driver = screenshotDriver();
+        Path folder = tempDir.resolve("screenshots");
+        RunnerProperties runnerProperties = new RunnerProperties();
+        runnerProperties.getScreenShot().setMode(RunnerProperties.ScreenShot.Mode.RING_ON_FAILURE);
+        
+        try (ExecutionPhotographer photographer = new ExecutionPhotographer(runnerProperties)) {
+            photographer.beginScenario(driver, "scenario.json");
+            photographer.takeScreenshot(driver, "Page", 0, folder.toString());
+            photographer.completeScenario(driver, false);
+            photographer.flush();
+            
+            assertTrue(filesIn(folder).isEmpty());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should capture only once, at the failure, in failure-only mode")
+    void failureOnly_capturesOnlyOnFailure() throws Exception {
+        WebDriver driver = screenshotDriver();
+        Path folder = tempDir.resolve("screenshots");
+        RunnerProperties runnerProperties = new RunnerProperties();
+        runnerProperties.getScreenShot().setMode(RunnerProperties.ScreenShot.Mode.FAILURE_ONLY);
+        runnerProperties.getScreenShot().setFolder(folder.toString());
+        
+        try (ExecutionPhotographer photographer = new ExecutionPhotographer(runnerProperties)) {
+            photographer.beginScenario(driver, "scenario.json");
+            photographer.takeScreenshot(driver, "Page", 0, folder.toString());
+            photographer.completeScenario(driver, true);
+            photographer.flush();
+            
+            verify((TakesScreenshot) driver, times(1)).getScreenshotAs(OutputType.BYTES);
+            List<Path> files = filesIn(folder);
+            assertEquals(1, files.size());
+            assertTrue(files.getFirst().getFileName().toString().startsWith("scenario.json_failure_"));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should store identical screenshots once and list every one in the scenario manifest")
+    void contentAddressed_identicalScreenshots_storedOnce() throws Exception {
+        WebDriver driver = screenshotDriver();
+        Path folder = tempDir.resolve("screenshots");
+        RunnerProperties runnerProperties = new RunnerProperties();
+        runnerProperties.getScreenShot().setStorage(RunnerProperties.ScreenShot.Storage.CONTENT_ADDRESSED);
+        
+        try (ExecutionPhotographer photographer = new ExecutionPhotographer(runnerProperties)) {
+            photographer.beginScenario(driver, "scenario.json");
+            photographer.takeScreenshot(driver, "Page", 0, folder.toString());
+            photographer.takeScreenshot(driver, "Page", 1, folder.toString());
+            photographer.completeScenario(driver, false);
+            photographer.flush();
+            
+            List<Path> blobs = filesIn(folder.resolve(ContentAddressedScreenshotStore.BLOBS));
+            assertEquals(1, blobs.size());
+            assertArrayEquals(PNG, Files.readAllBytes(blobs.getFirst()));
+            List<String> manifest = Files.readAllLines(folder.resolve(ContentAddressedScreenshotStore.MANIFESTS).resolve("scenario.json.manifest"));
+            assertEquals(2, manifest.size());
+            assertTrue(manifest.get(0).startsWith("Page_page0_"));
+            assertTrue(manifest.get(1).endsWith(ContentAddressedScreenshotStore.BLOBS + "/" + blobs.getFirst().getFileName()));
+        }
+    }
+}
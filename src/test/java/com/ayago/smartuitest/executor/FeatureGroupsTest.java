@@ -0,0 +1,57 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario;
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FeatureGroupsTest {
+    
+    private static final Map<String, Feature> SEARCH_ON = Map.of("SEARCH", new Feature(true, Map.of("store", "S1"), "SEARCH"));
+    private static final Map<String, Feature> SEARCH_OFF = Map.of("SEARCH", new Feature(false, Map.of("store", "S1"), "SEARCH"));
+    
+    private int index;
+    
+    private ParsedScenario valid(String name, Map<String, Feature> features) {
+        return ParsedScenario.valid(index++, new File(name), new TestScenario("http://localhost", features, List.of()));
+    }
+    
+    private ParsedScenario invalid(String name) {
+        return ParsedScenario.invalid(index++, new File(name), new IOException("Unexpected end-of-input"));
+    }
+    
+    private static List<String> drain(FeatureGroups groups) throws IOException, InterruptedException {
+        List<String> order = new ArrayList<>();
+        for (ParsedScenario scenario = groups.next(); scenario != null; scenario = groups.next()) {
+            order.add(scenario.getScenarioFile().getName());
+        }
+        return order;
+    }
+    
+    @Test
+    @DisplayName("Should run scenarios with equal feature flags one after the other, in the order their configuration was first seen")
+    void next_interleavedConfigurations_groupsEqualFeatures() throws Exception {
+        List<ParsedScenario> parsed = List.of(
+            valid("on-1", SEARCH_ON),
+            valid("off-1", SEARCH_OFF),
+            invalid("broken"),
+            // An equal but separately parsed configuration belongs to the same group
+            valid("on-2", Map.of("SEARCH", new Feature(true, Map.of("store", "S1"), "SEARCH"))),
+            valid("none", null),
+            valid("off-2", SEARCH_OFF));
+        Iterator<ParsedScenario> source = parsed.iterator();
+        
+        List<String> order = drain(new FeatureGroups(() -> source.hasNext() ? source.next() : null));
+        
+        assertEquals(List.of("on-1", "broken", "on-2", "off-1", "off-2", "none"), order);
+    }
+}
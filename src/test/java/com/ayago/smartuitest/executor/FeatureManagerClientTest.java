@@ -0,0 +1,96 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FeatureManagerClientTest {
+    
+    private static final Map<String, String> STORE_1 = Map.of("province", "ON", "store", "S1");
+    private static final Map<String, String> STORE_2 = Map.of("province", "ON", "store", "S2");
+    
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private BrowserSnapshots snapshots;
+    
+    private final InMemoryFeatureFlagServer server = new InMemoryFeatureFlagServer();
+    private FeatureManagerClient client;
+    
+    @BeforeEach
+    void setUp() {
+        client = new FeatureManagerClient(cacheManager, snapshots, server, new SimpleMeterRegistry());
+    }
+    
+    private static Feature flag(String name, boolean enable, Map<String, String> context) {
+        return new Feature(enable, context, name);
+    }
+    
+    @Test
+    @DisplayName("Should send all flags in one request the first time and nothing when they are applied again")
+    void applyFeatureFlags_sameFlagsTwice_sendsThemOnce() {
+        Map<String, Feature> flags = Map.of(
+            "SEARCH", flag("SEARCH", true, STORE_1),
+            "CHECKOUT", flag("CHECKOUT", false, STORE_1));
+        
+        client.applyFeatureFlags(flags);
+        CacheInvalidation second = client.applyFeatureFlags(Map.of(
+            "SEARCH", flag("SEARCH", true, STORE_1),
+            "CHECKOUT", flag("CHECKOUT", false, STORE_1)));
+        
+        assertEquals(List.of(flags), server.getRequests());
+        assertEquals(flags, server.getFlags());
+        verify(cacheManager, times(1)).invalidate(Set.of(STORE_1));
+        verify(snapshots, times(1)).invalidateAll();
+        assertSame(CacheInvalidation.NONE, second);
+    }
+    
+    @Test
+    @DisplayName("Should send only the changed flag and clear the cache of its old and new context")
+    void applyFeatureFlags_oneFlagChanged_sendsOnlyTheChange() {
+        client.applyFeatureFlags(Map.of(
+            "SEARCH", flag("SEARCH", true, STORE_1),
+            "CHECKOUT", flag("CHECKOUT", false, STORE_1)));
+        
+        client.applyFeatureFlags(Map.of(
+            "SEARCH", flag("SEARCH", true, STORE_2),
+            "CHECKOUT", flag("CHECKOUT", false, STORE_1)));
+        
+        assertEquals(Map.of("SEARCH", flag("SEARCH", true, STORE_2)), server.getRequests().getLast());
+        verify(cacheManager, times(1)).invalidate(Set.of(STORE_2, STORE_1));
+    }
+    
+    @Test
+    @DisplayName("Should send the flags of a failed request again and not clear the cache for it")
+    void applyFeatureFlags_requestFailed_sendsFlagsAgain() {
+        Map<String, Feature> flags = Map.of("SEARCH", flag("SEARCH", true, STORE_1));
+        server.failNextRequest(new IllegalStateException("Feature manager unavailable"));
+        
+        assertThrows(IllegalStateException.class, () -> client.applyFeatureFlags(flags));
+        verify(cacheManager, never()).invalidate(any());
+        
+        client.applyFeatureFlags(flags);
+        
+        assertEquals(2, server.getRequests().size());
+        assertEquals(flags, server.getFlags());
+        verify(cacheManager, times(1)).invalidate(Set.of(STORE_1));
+    }
+}
@@ -0,0 +1,44 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A feature manager held in memory: keeps the flags it was sent and every request it received.
+ */
+class InMemoryFeatureFlagServer implements FeatureFlagTransport {
+    
+    private final Map<String, Feature> flags = new HashMap<>();
+    private final List<Map<String, Feature>> requests = new ArrayList<>();
+    private RuntimeException nextFailure;
+    
+    @Override
+    public synchronized void setFlags(Map<String, Feature> changes) {
+        requests.add(Map.copyOf(changes));
+        if (nextFailure != null) {
+            RuntimeException failure = nextFailure;
+            nextFailure = null;
+            throw failure;
+        }
+        flags.putAll(changes);
+    }
+    
+    /**
+     * Makes the next request fail with the given error, without setting any flag.
+     */
+    synchronized void failNextRequest(RuntimeException failure) {
+        this.nextFailure = failure;
+    }
+    
+    synchronized Map<String, Feature> getFlags() {
+        return Map.copyOf(flags);
+    }
+    
+    synchronized List<Map<String, Feature>> getRequests() {
+        return List.copyOf(requests);
+    }
+}
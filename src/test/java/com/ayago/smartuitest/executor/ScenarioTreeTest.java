@@ -0,0 +1,79 @@
+package com.ayago.smartuitest.executor;
+
+import com.ayago.smartuitest.testscenario.ClickAction;
+import com.ayago.smartuitest.testscenario.EnterAction;
+import com.ayago.smartuitest.testscenario.TestScenario;
+import com.ayago.smartuitest.testscenario.TestScenario.ExpectedElement;
+import com.ayago.smartuitest.testscenario.TestScenario.Feature;
+import com.ayago.smartuitest.testscenario.TestScenario.Page;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScenarioTreeTest {
+    
+    private static final Map<String, Feature> SEARCH_ON = Map.of("SEARCH", new Feature(true, Map.of("store", "S1"), "SEARCH"));
+    
+    private int index;
+    
+    private ParsedScenario scenario(String name, Map<String, Feature> features, Page... pages) {
+        return ParsedScenario.valid(index++, new File(name), new TestScenario("http://localhost", features, List.of(pages)));
+    }
+    
+    // Every call creates new, equal instances, as parsing separate files does
+    private static Page landing() {
+        return new Page("Landing", List.of(), new ClickAction("Sign in"));
+    }
+    
+    private static Page login() {
+        return new Page("Login", List.of(new ExpectedElement("Title", "Sign in")), new EnterAction("User", "alice"));
+    }
+    
+    private static Page page(String name) {
+        return new Page(name, List.of(), new ClickAction(name));
+    }
+    
+    private static List<String> names(List<ParsedScenario> scenarios) {
+        return scenarios.stream().map(scenario -> scenario.getScenarioFile().getName()).toList();
+    }
+    
+    @Test
+    @DisplayName("Should merge scenarios by their common first pages and count every shared page once")
+    void build_sharedPrefix_mergesEqualPages() {
+        List<ScenarioTree> trees = ScenarioTree.build(List.of(
+            scenario("orders", null, landing(), login(), page("Orders")),
+            scenario("profile", null, landing(), login(), page("Profile")),
+            scenario("login", null, landing(), login()),
+            // Same page name, but a different action: the scenarios part ways here
+            scenario("guest", null, landing(), new Page("Login", List.of(), new ClickAction("Continue as guest")))));
+        
+        assertEquals(1, trees.size());
+        ScenarioTree tree = trees.getFirst();
+        assertEquals(5, tree.countPages());
+        assertEquals(10, tree.countScenarioPages());
+        
+        ScenarioTree.Node landing = tree.getRoot().getChildren().getFirst();
+        assertEquals(2, landing.getChildren().size());
+        ScenarioTree.Node login = landing.getChildren().getFirst();
+        assertEquals(List.of("login"), names(login.getScenarios()));
+        assertEquals(List.of("login", "orders", "profile"), names(login.getScenariosBelow()));
+        assertEquals(List.of(landing(), login(), page("Profile")), login.getChildren().get(1).getPath());
+    }
+    
+    @Test
+    @DisplayName("Should keep scenarios with other feature flags in a tree of their own")
+    void build_differentFeatures_separateTrees() {
+        List<ScenarioTree> trees = ScenarioTree.build(List.of(
+            scenario("without-search", null, landing(), page("Search")),
+            scenario("with-search", SEARCH_ON, landing(), page("Search"))));
+        
+        assertEquals(2, trees.size());
+        assertEquals(SEARCH_ON, trees.get(1).getFeatures());
+        assertEquals(List.of("with-search"), names(trees.get(1).getRoot().getScenariosBelow()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.ayago.smartuitest.executor;
 
+import com.ayago.smartuitest.engine.FieldValue;
 import com.ayago.smartuitest.engine.WebInteractionEngine;
 import com.ayago.smartuitest.engine.WebInteractionEngineFactory;
 import com.ayago.smartuitest.testscenario.Action;
@@ -7,6 +8,7 @@ import com.ayago.smartuitest.testscenario.TestScenario;
 import com.ayago.smartuitest.testscenario.TestScenario.ExpectedElement;
 import com.ayago.smartuitest.testscenario.TestScenario.Page;
 import com.ayago.smartuitest.testscenario.json.JsonTestScenarioParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,6 +17,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.InvalidCookieDomainException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 
@@ -22,21 +26,36 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -60,6 +79,7 @@ class SmartUITestRunnerTest {
     private RunnerProperties.ScreenShot screenShot;
     
     private SmartUITestRunner smartUITestRunner;
+    private SimpleMeterRegistry meterRegistry;
     
     private Path tempTestDir; // Use Path for easier file system operations
     
@@ -68,18 +88,61 @@ class SmartUITestRunnerTest {
         // Configure the mock RunnerProperties to return a specific screenshot folder
         when(runnerProperties.getScreenShot()).thenReturn(screenShot);
         when(screenShot.getFolder()).thenReturn("target/screenshots");
+        when(runnerProperties.getRunner()).thenReturn(new RunnerProperties.Runner());
+        when(runnerProperties.getDriverPool()).thenReturn(new RunnerProperties.DriverPool());
+        // The runner is verified against the mocked drivers themselves, not decorated ones
+        RunnerProperties.Instrumentation instrumentation = new RunnerProperties.Instrumentation();
+        instrumentation.setEnabled(false);
+        when(runnerProperties.getInstrumentation()).thenReturn(instrumentation);
+        when(runnerProperties.getMetrics()).thenReturn(new RunnerProperties.Metrics());
+        when(runnerProperties.getSnapshots()).thenReturn(new RunnerProperties.Snapshots());
+        lenient().when(featureManager.applyFeatureFlags(any())).thenReturn(CacheInvalidation.NONE);
         
         // Create a temporary directory for test files
         tempTestDir = Files.createTempDirectory("smart_ui_test_runner_tests");
-        smartUITestRunner = new SmartUITestRunner(
+        smartUITestRunner = newRunner();
+    }
+    
+    private SmartUITestRunner newRunner() {
+        WebDriverCommandMetrics commandMetrics = new WebDriverCommandMetrics(runnerProperties);
+        return newRunner(new WebDriverPool(new WebDriverProvider(commandMetrics, runnerProperties), runnerProperties, new SimpleMeterRegistry()), commandMetrics);
+    }
+    
+    private SmartUITestRunner newRunner(WebDriverPool webDriverPool, WebDriverCommandMetrics commandMetrics) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new SmartUITestRunner(
             parser,
             webInteractionEngineFactory,
             featureManager,
             executionPhotographer,
+            webDriverPool,
+            new BrowserSnapshots(meterRegistry, runnerProperties),
+            commandMetrics,
+            new RunMetrics(meterRegistry, runnerProperties),
             runnerProperties
         );
     }
     
+    /**
+     * @param drivers Collects the leased browsers. Each of them reports a signed-in state: a session cookie, a
+     *                token in its local storage and the dashboard as its page.
+     * @return A pool handing out a new mocked browser on every lease.
+     */
+    private static WebDriverPool poolOfSignedInBrowsers(List<ChromeDriver> drivers) throws InterruptedException {
+        WebDriverPool webDriverPool = mock(WebDriverPool.class);
+        when(webDriverPool.lease()).thenAnswer(invocation -> {
+            ChromeDriver driver = mock(ChromeDriver.class);
+            WebDriver.Options options = mock(WebDriver.Options.class);
+            lenient().when(driver.manage()).thenReturn(options);
+            lenient().when(options.getCookies()).thenReturn(Set.of(new Cookie("session", "alice")));
+            lenient().when(driver.getCurrentUrl()).thenReturn("http://localhost/dashboard");
+            lenient().when(driver.executeScript(anyString(), eq("localStorage"))).thenReturn(Map.of("token", "t-1"));
+            drivers.add(driver);
+            return driver;
+        });
+        return webDriverPool;
+    }
+    
     @AfterEach
     void tearDown() throws IOException {
         // Clean up the temporary directory and its contents
@@ -179,6 +242,8 @@ class SmartUITestRunnerTest {
         verify(executionPhotographer, times(1)).takeScreenshot(eq(mockWebDriver), eq("HomePage-On_Page"), eq(0), eq("target/screenshots"));
         verify(mockInteractionEngine, times(1)).performAction(any(Action.class), any(Runnable.class));
         verify(mockWebDriver, times(1)).quit();
+        assertEquals(1, meterRegistry.get(RunMetrics.SCENARIO).tag("outcome", "passed").timer().count());
+        assertEquals(1, meterRegistry.get(RunMetrics.PAGE).tag("page", "HomePage").timer().count());
     }
     
     @Test
@@ -222,10 +287,13 @@ class SmartUITestRunnerTest {
         WebInteractionEngine mockInteractionEngine2 = mock(WebInteractionEngine.class);
         when(webInteractionEngineFactory.create(any(WebDriver.class), eq("http://localhost/2"))).thenReturn(mockInteractionEngine2);
         
-
+        
         try (var mockedChromeDriverConstruction = org.mockito.Mockito.mockConstruction(ChromeDriver.class)) {
             // Call the run method
             smartUITestRunner.run(tempTestDir.toString());
+            
+            // Each scenario runs in a browser of its own
+            assertEquals(2, mockedChromeDriverConstruction.constructed().size());
         }
         
         // Verify interactions for both scenarios
@@ -242,7 +310,8 @@ class SmartUITestRunnerTest {
         WebDriver mockDriverTwo = scenarioTwoDriverCaptor.getValue();
         assertNotNull(mockDriverTwo);
         
-        verify(featureManager, times(2)).applyFeatureFlags(Collections.emptyMap());
+        // Both scenarios run without flags, so the flags are applied (and the cache cleared) only once
+        verify(featureManager, times(1)).applyFeatureFlags(Collections.emptyMap());
         
         verify(executionPhotographer, times(1)).takeScreenshot(eq(mockDriverOne), eq("Scenario1Page-On_Page"), eq(0), eq("target/screenshots"));
         verify(executionPhotographer, times(1)).takeScreenshot(eq(mockDriverTwo), eq("Scenario2Page-On_Page"), eq(0), eq("target/screenshots"));
@@ -278,7 +347,8 @@ class SmartUITestRunnerTest {
         when(mockPage.getExpected()).thenReturn(Collections.singletonList(mockExpectedElement));
         when(mockExpectedElement.getTarget()).thenReturn("myField");
         when(mockExpectedElement.getValue()).thenReturn("expectedValue");
-        when(mockInteractionEngine.getFieldValue(eq("myField"))).thenReturn("actualValue"); // Mismatch here!
+        when(mockInteractionEngine.getFieldValues(eq(List.of("myField"))))
+            .thenReturn(Map.of("myField", FieldValue.found("actualValue"))); // Mismatch here!
         
         // Stub ChromeDriver constructor to return our mock WebDriver
         try (var mockedConstruction = org.mockito.Mockito.mockConstruction(ChromeDriver.class)) {
@@ -302,14 +372,12 @@ class SmartUITestRunnerTest {
     }
     
     @Test
-    @DisplayName("Should ensure webDriver.quit() is called even if an exception occurs during scenario execution")
-    void runTestScenario_exceptionDuringExecution_shouldCallWebDriverQuit() throws Exception {
+    @DisplayName("Should fail a scenario whose file cannot be parsed without starting a browser for it")
+    void runTestScenario_parsingFails_shouldNotStartBrowser() throws Exception {
         // Create a dummy JSON file
         Path jsonFilePath = tempTestDir.resolve("exception_scenario.json");
         Files.writeString(jsonFilePath, "{ \"host\": \"http://localhost\" }");
         
-        // Mock WebDriver, WebInteractionEngine, TestScenario
-        WebDriver mockWebDriver;
         WebInteractionEngine mockInteractionEngine = mock(WebInteractionEngine.class);
         
         // Configure mocks to throw an exception during parsing
@@ -321,17 +389,43 @@ class SmartUITestRunnerTest {
             // Assert that the RuntimeException is rethrown by the run method
             RuntimeException capturedException = assertThrows(RuntimeException.class, () -> smartUITestRunner.run(tempTestDir.toString()));
             assertEquals("Simulated parsing error", capturedException.getMessage());
-            mockWebDriver = mockedConstruction.constructed().getFirst();
+            // Files are parsed before a browser is leased, so an invalid file does not cost one
+            assertTrue(mockedConstruction.constructed().isEmpty());
         }
         
-        // Verify that quit() is called in the finally block
-        verify(mockWebDriver, times(1)).quit();
         // Verify other interactions are not made if parsing fails
         verify(featureManager, never()).applyFeatureFlags(any());
         verify(executionPhotographer, never()).takeScreenshot(any(), anyString(), anyInt(), anyString());
         verify(mockInteractionEngine, never()).performAction(any(), any());
     }
     
+    @Test
+    @DisplayName("Should not start any scenario when a file is invalid and scenarios are validated up front")
+    void run_upFrontValidationWithInvalidFile_shouldAbortBeforeStartingBrowsers() throws Exception {
+        RunnerProperties.Runner runner = new RunnerProperties.Runner();
+        runner.setValidation(RunnerProperties.Runner.Validation.UP_FRONT);
+        when(runnerProperties.getRunner()).thenReturn(runner);
+        smartUITestRunner = newRunner();
+        
+        Path invalidFilePath = tempTestDir.resolve("invalid_scenario.json");
+        Path validFilePath = tempTestDir.resolve("valid_scenario.json");
+        Files.writeString(invalidFilePath, "{ \"host\": ");
+        Files.writeString(validFilePath, "{ \"host\": \"http://localhost/valid\" }");
+        when(parser.parse(eq(invalidFilePath.toFile()))).thenThrow(new IOException("Unexpected end-of-input"));
+        when(parser.parse(eq(validFilePath.toFile()))).thenReturn(mock(TestScenario.class));
+        
+        try (var mockedConstruction = org.mockito.Mockito.mockConstruction(ChromeDriver.class)) {
+            IOException capturedException = assertThrows(IOException.class, () -> smartUITestRunner.run(tempTestDir.toString()));
+            assertEquals("Unexpected end-of-input", capturedException.getMessage());
+            assertTrue(mockedConstruction.constructed().isEmpty());
+        }
+        
+        // Both files were validated, neither scenario ran
+        verify(parser, times(1)).parse(eq(validFilePath.toFile()));
+        verify(webInteractionEngineFactory, never()).create(any(), any());
+        verify(featureManager, never()).applyFeatureFlags(any());
+    }
+    
     @Test
     @DisplayName("Should capture and execute the screenshot supplier for performAction")
     void runTestScenario_performAction_capturesAndExecutesScreenshotSupplier() throws Exception {
@@ -421,8 +515,8 @@ class SmartUITestRunnerTest {
         when(expected1_1.getValue()).thenReturn("value1");
         when(expected1_2.getTarget()).thenReturn("field2");
         when(expected1_2.getValue()).thenReturn("value2");
-        when(mockInteractionEngine.getFieldValue("field1")).thenReturn("value1");
-        when(mockInteractionEngine.getFieldValue("field2")).thenReturn("value2");
+        when(mockInteractionEngine.getFieldValues(List.of("field1", "field2")))
+            .thenReturn(Map.of("field1", FieldValue.found("value1"), "field2", FieldValue.found("value2")));
         when(page1.getAction()).thenReturn(action1);
         
         // Configure Page 2
@@ -430,7 +524,8 @@ class SmartUITestRunnerTest {
         when(page2.getExpected()).thenReturn(Collections.singletonList(expected2_1));
         when(expected2_1.getTarget()).thenReturn("field3");
         when(expected2_1.getValue()).thenReturn("value3");
-        when(mockInteractionEngine.getFieldValue("field3")).thenReturn("value3");
+        when(mockInteractionEngine.getFieldValues(List.of("field3")))
+            .thenReturn(Map.of("field3", FieldValue.found("value3")));
         when(page2.getAction()).thenReturn(action2);
         
         // Stub ChromeDriver constructor to return our mock WebDriver
@@ -442,14 +537,354 @@ class SmartUITestRunnerTest {
         
         // Verify interactions
         verify(executionPhotographer, times(1)).takeScreenshot(eq(mockWebDriver), eq("PageOne-On_Page"), eq(0), eq("target/screenshots"));
-        verify(mockInteractionEngine, times(1)).getFieldValue("field1");
-        verify(mockInteractionEngine, times(1)).getFieldValue("field2");
+        verify(mockInteractionEngine, times(1)).getFieldValues(List.of("field1", "field2"));
         verify(mockInteractionEngine, times(1)).performAction(eq(action1), any(Runnable.class));
         
         verify(executionPhotographer, times(1)).takeScreenshot(eq(mockWebDriver), eq("PageTwo-On_Page"), eq(1), eq("target/screenshots"));
-        verify(mockInteractionEngine, times(1)).getFieldValue("field3");
+        verify(mockInteractionEngine, times(1)).getFieldValues(List.of("field3"));
         verify(mockInteractionEngine, times(1)).performAction(eq(action2), any(Runnable.class));
         
         verify(mockWebDriver, times(1)).quit();
     }
+    
+    @Test
+    @DisplayName("Should keep running the remaining scenarios when one scenario fails and report the failure at the end")
+    void run_oneScenarioFails_shouldRunRemainingScenariosAndRethrowFailure() throws Exception {
+        Path failingFilePath = tempTestDir.resolve("failing_scenario.json");
+        Path passingFilePath = tempTestDir.resolve("passing_scenario.json");
+        Files.writeString(failingFilePath, "{ \"host\": \"http://localhost/failing\" }");
+        Files.writeString(passingFilePath, "{ \"host\": \"http://localhost/passing\" }");
+        
+        Page passingPage = mock(Page.class);
+        when(passingPage.getName()).thenReturn("PassingPage");
+        when(passingPage.getExpected()).thenReturn(Collections.emptyList());
+        when(passingPage.getAction()).thenReturn(mock(Action.class));
+        
+        TestScenario passingScenario = mock(TestScenario.class);
+        when(passingScenario.getHost()).thenReturn("http://localhost/passing");
+        when(passingScenario.getFeatures()).thenReturn(Collections.emptyMap());
+        when(passingScenario.getPages()).thenReturn(Collections.singletonList(passingPage));
+        
+        when(parser.parse(eq(failingFilePath.toFile()))).thenThrow(new RuntimeException("Simulated parsing error"));
+        when(parser.parse(eq(passingFilePath.toFile()))).thenReturn(passingScenario);
+        
+        WebInteractionEngine passingEngine = mock(WebInteractionEngine.class);
+        when(webInteractionEngineFactory.create(any(WebDriver.class), eq("http://localhost/passing"))).thenReturn(passingEngine);
+        
+        try (var mockedConstruction = org.mockito.Mockito.mockConstruction(ChromeDriver.class)) {
+            RuntimeException capturedException = assertThrows(RuntimeException.class, () -> smartUITestRunner.run(tempTestDir.toString()));
+            assertEquals("Simulated parsing error", capturedException.getMessage());
+            
+            // Every browser started during the run was closed
+            assertFalse(mockedConstruction.constructed().isEmpty());
+            mockedConstruction.constructed().forEach(driver -> verify(driver, times(1)).quit());
+        }
+        
+        // The passing scenario still ran to completion despite the other scenario failing
+        verify(passingEngine, times(1)).performAction(any(Action.class), any(Runnable.class));
+    }
+    
+    @Test
+    @DisplayName("Should wait for the cache invalidation after starting the browser and before loading the first page")
+    void run_cacheInvalidationFailed_shouldFailScenarioBeforeFirstPageLoad() throws Exception {
+        Path jsonFilePath = tempTestDir.resolve("stale_cache_scenario.json");
+        Files.writeString(jsonFilePath, "{ \"host\": \"http://localhost\" }");
+        TestScenario mockTestScenario = mock(TestScenario.class);
+        when(parser.parse(eq(jsonFilePath.toFile()))).thenReturn(mockTestScenario);
+        
+        CacheInvalidation failedInvalidation = new CacheInvalidation(
+            Set.of(Map.of("store", "S1")), CompletableFuture.failedFuture(new IOException("Cache service unavailable")));
+        when(featureManager.applyFeatureFlags(any())).thenReturn(failedInvalidation);
+        
+        WebDriver mockWebDriver;
+        try (var mockedConstruction = org.mockito.Mockito.mockConstruction(ChromeDriver.class)) {
+            IllegalStateException capturedException = assertThrows(IllegalStateException.class, () -> smartUITestRunner.run(tempTestDir.toString()));
+            assertEquals("Cache service unavailable", capturedException.getCause().getMessage());
+            mockWebDriver = mockedConstruction.constructed().getFirst();
+        }
+        
+        // The browser was started while the invalidation ran, but the host was never loaded
+        verify(webInteractionEngineFactory, never()).create(any(), any());
+        verify(mockWebDriver, times(1)).quit();
+    }
+    
+    @Test
+    @DisplayName("Should apply feature flags while the browser starts, and load the host only once they are applied")
+    void run_scenarioSetup_shouldOverlapFeatureFlagsWithBrowserStartup() throws Exception {
+        Path jsonFilePath = tempTestDir.resolve("setup_scenario.json");
+        Files.writeString(jsonFilePath, "{ \"host\": \"http://localhost\" }");
+        TestScenario mockTestScenario = mock(TestScenario.class);
+        when(mockTestScenario.getHost()).thenReturn("http://localhost");
+        when(mockTestScenario.getPages()).thenReturn(Collections.emptyList());
+        when(parser.parse(eq(jsonFilePath.toFile()))).thenReturn(mockTestScenario);
+        
+        CountDownLatch browserStarted = new CountDownLatch(1);
+        AtomicBoolean flagsSawBrowserStart = new AtomicBoolean();
+        AtomicBoolean flagsApplied = new AtomicBoolean();
+        when(featureManager.applyFeatureFlags(any())).thenAnswer(invocation -> {
+            // Only returns early if the browser starts while the flags are being applied
+            flagsSawBrowserStart.set(browserStarted.await(5, TimeUnit.SECONDS));
+            flagsApplied.set(true);
+            return CacheInvalidation.NONE;
+        });
+        AtomicBoolean flagsAppliedBeforeNavigation = new AtomicBoolean();
+        when(webInteractionEngineFactory.create(any(WebDriver.class), eq("http://localhost"))).thenAnswer(invocation -> {
+            flagsAppliedBeforeNavigation.set(flagsApplied.get());
+            return mock(WebInteractionEngine.class);
+        });
+        
+        try (var mockedConstruction = org.mockito.Mockito.mockConstruction(ChromeDriver.class, (driver, context) -> browserStarted.countDown())) {
+            smartUITestRunner.run(tempTestDir.toString());
+            
+            assertEquals(1, mockedConstruction.constructed().size());
+        }
+        
+        assertTrue(flagsSawBrowserStart.get());
+        assertTrue(flagsAppliedBeforeNavigation.get());
+        assertEquals(1, meterRegistry.get(RunMetrics.SETUP).timer().count());
+    }
+    
+    @Test
+    @DisplayName("Should release the leased browser when the scenario fails before its first page")
+    void run_beginScenarioFails_shouldReleaseBrowser() throws Exception {
+        WebDriverPool webDriverPool = mock(WebDriverPool.class);
+        WebDriver driver = mock(WebDriver.class);
+        when(webDriverPool.lease()).thenReturn(driver);
+        smartUITestRunner = newRunner(webDriverPool, new WebDriverCommandMetrics(runnerProperties));
+        Path jsonFilePath = Files.writeString(tempTestDir.resolve("scenario.json"), "{ \"host\": \"http://localhost\" }");
+        when(parser.parse(eq(jsonFilePath.toFile()))).thenReturn(new TestScenario("http://localhost", null, List.of()));
+        doThrow(new IllegalStateException("Screenshot folder is not writable"))
+            .when(executionPhotographer).beginScenario(driver, "scenario.json");
+        
+        assertThrows(IllegalStateException.class, () -> smartUITestRunner.run(tempTestDir.toString()));
+        
+        verify(webDriverPool, times(1)).release(driver);
+        verify(webInteractionEngineFactory, never()).create(any(WebDriver.class), anyString());
+    }
+    
+    @Test
+    @DisplayName("Should run scenarios on a pool of platform threads with parallelism above 1, each in its own browser")
+    void run_parallelism_shouldRunScenariosConcurrentlyOnPoolThreads() throws Exception {
+        RunnerProperties.Runner runner = new RunnerProperties.Runner();
+        runner.setParallelism(2);
+        when(runnerProperties.getRunner()).thenReturn(runner);
+        // Drivers are started on the pool threads, out of reach of a thread-local construction mock
+        WebDriverPool webDriverPool = mock(WebDriverPool.class);
+        when(webDriverPool.lease()).thenAnswer(invocation -> mock(WebDriver.class));
+        smartUITestRunner = newRunner(webDriverPool, new WebDriverCommandMetrics(runnerProperties));
+        
+        Page page = new Page("Login", Collections.emptyList(), mock(Action.class));
+        TestScenario scenario = new TestScenario("http://localhost", null, List.of(page));
+        when(parser.parse(any(File.class))).thenReturn(scenario);
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(tempTestDir.resolve("parallel_scenario_" + i + ".json"), "{ \"host\": \"http://localhost\" }");
+        }
+        
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        AtomicBoolean overlapped = new AtomicBoolean();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        WebInteractionEngine engine = mock(WebInteractionEngine.class);
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            bothRunning.countDown();
+            // Only returns early if another scenario is on its page at the same time
+            overlapped.compareAndSet(false, bothRunning.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(engine).performAction(any(Action.class), any(Runnable.class));
+        when(webInteractionEngineFactory.create(any(WebDriver.class), eq("http://localhost"))).thenReturn(engine);
+        
+        smartUITestRunner.run(tempTestDir.toString());
+        
+        assertTrue(overlapped.get());
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+        verify(executionPhotographer, times(4)).takeScreenshot(any(WebDriver.class), eq("Login-On_Page"), eq(0), eq("target/screenshots"));
+        verify(webDriverPool, times(4)).release(any(WebDriver.class));
+        assertEquals(4, meterRegistry.get(RunMetrics.SCENARIO).tag("outcome", "passed").timers().size());
+    }
+    
+    @Test
+    @DisplayName("Should retry applying the feature flags before failing the scenarios that run in parallel with them")
+    void run_parallelismFeatureFlagsFailOnce_shouldRetryAndPassEveryScenario() throws Exception {
+        RunnerProperties.Runner runner = new RunnerProperties.Runner();
+        runner.setParallelism(2);
+        when(runnerProperties.getRunner()).thenReturn(runner);
+        WebDriverPool webDriverPool = mock(WebDriverPool.class);
+        when(webDriverPool.lease()).thenAnswer(invocation -> mock(WebDriver.class));
+        smartUITestRunner = newRunner(webDriverPool, new WebDriverCommandMetrics(runnerProperties));
+        
+        Page page = new Page("Login", Collections.emptyList(), mock(Action.class));
+        when(parser.parse(any(File.class))).thenReturn(new TestScenario("http://localhost", null, List.of(page)));
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(tempTestDir.resolve("flag_scenario_" + i + ".json"), "{ \"host\": \"http://localhost\" }");
+        }
+        // Every scenario of the group is submitted with the same pending flags before the first attempt fails
+        when(featureManager.applyFeatureFlags(any()))
+            .thenThrow(new IllegalStateException("Feature flag service unavailable"))
+            .thenReturn(CacheInvalidation.NONE);
+        when(webInteractionEngineFactory.create(any(WebDriver.class), eq("http://localhost"))).thenReturn(mock(WebInteractionEngine.class));
+        
+        smartUITestRunner.run(tempTestDir.toString());
+        
+        verify(featureManager, times(2)).applyFeatureFlags(any());
+        verify(webInteractionEngineFactory, times(3)).create(any(WebDriver.class), eq("http://localhost"));
+        assertEquals(3, meterRegistry.get(RunMetrics.SCENARIO).tag("outcome", "passed").timers().size());
+    }
+    
+    @Test
+    @DisplayName("Should run scenarios on virtual threads with no more browsers at the same time than the parallelism")
+    void run_virtualThreadModel_shouldLimitConcurrencyByBrowserSessions() throws Exception {
+        RunnerProperties.Runner runner = new RunnerProperties.Runner();
+        runner.setThreadModel(RunnerProperties.Runner.ThreadModel.VIRTUAL);
+        runner.setParallelism(2);
+        when(runnerProperties.getRunner()).thenReturn(runner);
+        // Drivers are started on virtual threads, out of reach of a thread-local construction mock
+        WebDriverPool webDriverPool = mock(WebDriverPool.class);
+        when(webDriverPool.lease()).thenAnswer(invocation -> mock(WebDriver.class));
+        smartUITestRunner = newRunner(webDriverPool, new WebDriverCommandMetrics(runnerProperties));
+        
+        Page page = mock(Page.class);
+        when(page.getName()).thenReturn("Page");
+        when(page.getExpected()).thenReturn(Collections.emptyList());
+        when(page.getAction()).thenReturn(mock(Action.class));
+        TestScenario scenario = mock(TestScenario.class);
+        when(scenario.getHost()).thenReturn("http://localhost");
+        when(scenario.getPages()).thenReturn(List.of(page));
+        when(parser.parse(any(File.class))).thenReturn(scenario);
+        for (int i = 0; i < 6; i++) {
+            Files.writeString(tempTestDir.resolve("virtual_scenario_" + i + ".json"), "{ \"host\": \"http://localhost\" }");
+        }
+        
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicBoolean allVirtual = new AtomicBoolean(true);
+        WebInteractionEngine engine = mock(WebInteractionEngine.class);
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            allVirtual.compareAndSet(true, Thread.currentThread().isVirtual());
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return null;
+        }).when(engine).performAction(any(Action.class), any(Runnable.class));
+        when(webInteractionEngineFactory.create(any(WebDriver.class), eq("http://localhost"))).thenReturn(engine);
+        
+        smartUITestRunner.run(tempTestDir.toString());
+        
+        verify(engine, times(6)).performAction(any(Action.class), any(Runnable.class));
+        assertTrue(allVirtual.get());
+        assertEquals(2, maxRunning.get());
+        verify(webDriverPool, times(6)).release(any(WebDriver.class));
+    }
+    
+    @Test
+    @DisplayName("Should run the pages shared by several scenarios once, and fork the rest into browsers with the captured state")
+    void run_sharedPrefixes_shouldRunSharedPagesOnceAndRestoreStateForForks() throws Exception {
+        RunnerProperties.Runner runner = new RunnerProperties.Runner();
+        runner.setSharedPrefixes(true);
+        when(runnerProperties.getRunner()).thenReturn(runner);
+        List<ChromeDriver> drivers = new ArrayList<>();
+        smartUITestRunner = newRunner(poolOfSignedInBrowsers(drivers), new WebDriverCommandMetrics(runnerProperties));
+        
+        Action signIn = mock(Action.class);
+        Action orders = mock(Action.class);
+        Action profile = mock(Action.class);
+        for (Map.Entry<String, Page> last : Map.of(
+            "orders.json", new Page("Orders", Collections.emptyList(), orders),
+            "profile.json", new Page("Profile", Collections.emptyList(), profile)).entrySet()) {
+            Path jsonFilePath = Files.writeString(tempTestDir.resolve(last.getKey()), "{ \"host\": \"http://localhost\" }");
+            TestScenario scenario = new TestScenario("http://localhost", null,
+                List.of(new Page("Login", Collections.emptyList(), signIn), last.getValue()));
+            when(parser.parse(eq(jsonFilePath.toFile()))).thenReturn(scenario);
+        }
+        WebInteractionEngine engine = mock(WebInteractionEngine.class);
+        when(webInteractionEngineFactory.create(any(WebDriver.class), anyString())).thenReturn(engine);
+        
+        smartUITestRunner.run(tempTestDir.toString());
+        
+        verify(engine, times(1)).performAction(eq(signIn), any(Runnable.class));
+        verify(engine, times(1)).performAction(eq(orders), any(Runnable.class));
+        verify(engine, times(1)).performAction(eq(profile), any(Runnable.class));
+        assertEquals(2, drivers.size());
+        verify(webInteractionEngineFactory, times(1)).create(drivers.get(0), "http://localhost");
+        // The fork starts where the login left the first browser
+        ChromeDriver fork = drivers.get(1);
+        // State is set on the origin root, the captured page is only loaded once it is restored
+        verify(fork).get("http://localhost/");
+        verify(fork, never()).get("http://localhost/dashboard");
+        verify(fork.manage()).addCookie(new Cookie("session", "alice"));
+        verify(fork).executeScript(anyString(), eq("localStorage"), eq(Map.of("token", "t-1")));
+        verify(webInteractionEngineFactory, times(1)).create(fork, "http://localhost/dashboard");
+        assertEquals(2, meterRegistry.get(RunMetrics.SCENARIO).tag("outcome", "passed").timers().size());
+        assertEquals(1, meterRegistry.get(RunMetrics.PAGE).tag("page", "Login").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Should restore the snapshot captured after the login of one scenario into the next, skipping its login")
+    void run_snapshotAfterLogin_shouldSkipLoginInLaterScenario() throws Exception {
+        List<ChromeDriver> drivers = new ArrayList<>();
+        smartUITestRunner = newRunner(poolOfSignedInBrowsers(drivers), new WebDriverCommandMetrics(runnerProperties));
+        
+        Action signIn = mock(Action.class);
+        Action next = mock(Action.class);
+        for (String name : List.of("orders.json", "profile.json")) {
+            Path jsonFilePath = Files.writeString(tempTestDir.resolve(name), "{ \"host\": \"http://localhost\" }");
+            TestScenario scenario = new TestScenario("http://localhost", null, List.of(
+                new Page("Landing", Collections.emptyList(), signIn),
+                new Page("Login", Collections.emptyList(), signIn),
+                new Page(name, Collections.emptyList(), next)), new TestScenario.Snapshot("Login", null));
+            when(parser.parse(eq(jsonFilePath.toFile()))).thenReturn(scenario);
+        }
+        WebInteractionEngine engine = mock(WebInteractionEngine.class);
+        when(webInteractionEngineFactory.create(any(WebDriver.class), anyString())).thenReturn(engine);
+        
+        smartUITestRunner.run(tempTestDir.toString());
+        
+        verify(engine, times(2)).performAction(eq(signIn), any(Runnable.class));
+        verify(engine, times(2)).performAction(eq(next), any(Runnable.class));
+        verify(webInteractionEngineFactory, times(1)).create(drivers.get(0), "http://localhost");
+        ChromeDriver restored = drivers.get(1);
+        verify(restored.manage()).addCookie(new Cookie("session", "alice"));
+        verify(webInteractionEngineFactory, times(1)).create(restored, "http://localhost/dashboard");
+        assertEquals(1, meterRegistry.get("smartui.snapshot.lookups").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("smartui.snapshot.lookups").tag("result", "miss").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should run the pages of a scenario again when its snapshot cannot be restored, and drop the snapshot")
+    void run_snapshotNotAccepted_shouldRunFromHost() throws Exception {
+        List<ChromeDriver> drivers = new ArrayList<>();
+        WebDriverPool signedInBrowsers = poolOfSignedInBrowsers(drivers);
+        WebDriverPool webDriverPool = mock(WebDriverPool.class);
+        when(webDriverPool.lease()).thenAnswer(invocation -> {
+            WebDriver driver = signedInBrowsers.lease();
+            WebDriver.Options options = driver.manage();
+            lenient().doThrow(new InvalidCookieDomainException("invalid cookie domain")).when(options).addCookie(any(Cookie.class));
+            return driver;
+        });
+        smartUITestRunner = newRunner(webDriverPool, new WebDriverCommandMetrics(runnerProperties));
+        
+        Action signIn = mock(Action.class);
+        Action next = mock(Action.class);
+        for (String name : List.of("orders.json", "profile.json", "settings.json")) {
+            Path jsonFilePath = Files.writeString(tempTestDir.resolve(name), "{ \"host\": \"http://localhost\" }");
+            TestScenario scenario = new TestScenario("http://localhost", null, List.of(
+                new Page("Login", Collections.emptyList(), signIn),
+                new Page(name, Collections.emptyList(), next)), new TestScenario.Snapshot("Login", null));
+            when(parser.parse(eq(jsonFilePath.toFile()))).thenReturn(scenario);
+        }
+        WebInteractionEngine engine = mock(WebInteractionEngine.class);
+        when(webInteractionEngineFactory.create(any(WebDriver.class), anyString())).thenReturn(engine);
+        
+        smartUITestRunner.run(tempTestDir.toString());
+        
+        // Every scenario signs in itself, and each one that ran its login replaced the dropped snapshot
+        verify(engine, times(3)).performAction(eq(signIn), any(Runnable.class));
+        verify(engine, times(3)).performAction(eq(next), any(Runnable.class));
+        for (ChromeDriver driver : drivers) {
+            verify(webInteractionEngineFactory, times(1)).create(driver, "http://localhost");
+        }
+        verify(webInteractionEngineFactory, never()).create(any(WebDriver.class), eq("http://localhost/dashboard"));
+        assertEquals(3, meterRegistry.get(RunMetrics.SCENARIO).tag("outcome", "passed").timers().size());
+        assertEquals(0, meterRegistry.get("smartui.snapshot.lookups").tag("result", "hit").counter().count());
+        assertEquals(3, meterRegistry.get("smartui.snapshot.lookups").tag("result", "miss").counter().count());
+    }
 }
@@ -0,0 +1,52 @@
+package com.ayago.smartuitest.executor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+class WebDriverCommandMetricsTest {
+    
+    @Test
+    @DisplayName("Should count decorated driver commands per type, page and action")
+    @SuppressWarnings("unchecked")
+    void decoratedDriver_commandsAttributedToPageAndAction() {
+        RunnerProperties runnerProperties = new RunnerProperties();
+        runnerProperties.getInstrumentation().setDumpFile("");
+        WebDriverCommandMetrics metrics = new WebDriverCommandMetrics(runnerProperties);
+        WebDriver driver = new EventFiringDecorator<>(metrics)
+            .decorate(mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class)));
+        
+        metrics.beginScenario("login.json");
+        driver.get("https://example.com");
+        metrics.beginPage("Login");
+        driver.findElement(By.id("email"));
+        metrics.beginAction("SubmitAction");
+        ((JavascriptExecutor) driver).executeScript("return 1");
+        driver.manage();
+        metrics.endAction();
+        metrics.endScenario();
+        
+        Map<String, Object> snapshot = metrics.snapshot();
+        Map<String, Map<String, Object>> commands = (Map<String, Map<String, Object>>) snapshot.get("commands");
+        assertEquals(List.of("executeScript", "findElement", "get"), List.copyOf(commands.keySet()));
+        assertEquals(1L, commands.get("findElement").get("count"));
+        
+        List<Map<String, Object>> pages = (List<Map<String, Object>>) snapshot.get("pages");
+        Map<String, Object> loginPage = pages.stream().filter(page -> "Login".equals(page.get("page"))).findFirst().orElseThrow();
+        assertEquals(2L, loginPage.get("commands"));
+        assertEquals(1L, loginPage.get("actionCommands"));
+        
+        Map<String, Map<String, Object>> actions = (Map<String, Map<String, Object>>) snapshot.get("actions");
+        assertEquals(1L, actions.get("SubmitAction").get("commands"));
+    }
+}
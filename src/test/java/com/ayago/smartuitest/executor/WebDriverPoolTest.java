@@ -0,0 +1,212 @@
+package com.ayago.smartuitest.executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+class WebDriverPoolTest {
+    
+    @Mock
+    private WebDriverProvider webDriverProvider;
+    
+    private RunnerProperties runnerProperties;
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        runnerProperties = new RunnerProperties();
+        runnerProperties.getDriverPool().setMaxSize(1);
+        runnerProperties.getDriverPool().setLeaseTimeout(Duration.ofMillis(100));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    private WebDriverPool newPool() {
+        return new WebDriverPool(webDriverProvider, runnerProperties, meterRegistry);
+    }
+    
+    /**
+     * @param history The pages the scenario's tab went through.
+     * @param cookieDomains The domains the browser holds cookies for.
+     * @return A Chrome driver with a single tab, "used", that a reset replaces by "blank".
+     */
+    private static WebDriver chromeDriver(List<String> history, List<String> cookieDomains) {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(HasCdp.class));
+        HasCdp cdp = (HasCdp) driver;
+        WebDriver.TargetLocator targetLocator = mock(WebDriver.TargetLocator.class);
+        lenient().when(driver.switchTo()).thenReturn(targetLocator);
+        lenient().when(targetLocator.window(anyString())).thenReturn(driver);
+        lenient().when(targetLocator.newWindow(WindowType.TAB)).thenReturn(driver);
+        lenient().when(driver.getWindowHandles()).thenReturn(Set.of("used"));
+        lenient().when(driver.getWindowHandle()).thenReturn("blank");
+        lenient().when(cdp.executeCdpCommand(anyString(), anyMap())).thenReturn(Map.of());
+        lenient().when(cdp.executeCdpCommand(eq("Page.getNavigationHistory"), anyMap()))
+            .thenReturn(Map.of("entries", history.stream().map(url -> Map.of("url", url)).toList()));
+        lenient().when(cdp.executeCdpCommand(eq("Storage.getCookies"), anyMap()))
+            .thenReturn(Map.of("cookies", cookieDomains.stream().map(domain -> Map.of("name", "session", "domain", domain)).toList()));
+        return driver;
+    }
+    
+    private static WebDriver healthyDriver() {
+        return chromeDriver(List.of("about:blank", "http://localhost/dashboard"), List.of("localhost"));
+    }
+    
+    @Test
+    @DisplayName("Should reuse a released driver after resetting its browser state")
+    void lease_afterRelease_reusesDriverWithResetState() throws Exception {
+        WebDriver driver = healthyDriver();
+        when(webDriverProvider.create()).thenReturn(driver);
+        WebDriverPool pool = newPool();
+        
+        pool.release(pool.lease());
+        WebDriver reused = pool.lease();
+        
+        assertSame(driver, reused);
+        verify(webDriverProvider, times(1)).create();
+        verify((HasCdp) driver, times(1)).executeCdpCommand("Network.clearBrowserCookies", Map.of());
+        verify((HasCdp) driver, times(1)).executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", "http://localhost", "storageTypes", "all"));
+        verify(driver, times(1)).close();
+        verify(driver, never()).quit();
+        assertEquals(2, pool.getMetrics().getLeases());
+        assertEquals(1, pool.getMetrics().getCreations());
+        assertEquals(2, meterRegistry.get("smartui.driver.lease").timer().count());
+        assertEquals(1, meterRegistry.get("smartui.driver.created").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should clear the storage of every origin the previous scenario visited, not only the one it ended on")
+    void lease_afterCrossOriginScenario_clearsEveryVisitedOrigin() throws Exception {
+        WebDriver driver = chromeDriver(
+            List.of("about:blank", "https://shop.example.com/", "https://sso.example.com/login?next=%2F", "https://shop.example.com/orders"),
+            List.of(".shop.example.com", ".idp.example.com"));
+        when(webDriverProvider.create()).thenReturn(driver);
+        WebDriverPool pool = newPool();
+        
+        pool.release(pool.lease());
+        pool.lease();
+        
+        HasCdp cdp = (HasCdp) driver;
+        verify(cdp).executeCdpCommand("Network.clearBrowserCookies", Map.of());
+        for (String origin : List.of("https://shop.example.com", "https://sso.example.com", "https://idp.example.com", "http://idp.example.com")) {
+            verify(cdp).executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+        }
+        // The scenario's tab goes, with its session storage and history
+        verify(driver.switchTo()).newWindow(WindowType.TAB);
+        // Once to read its history, once to close it
+        verify(driver.switchTo(), times(2)).window("used");
+        verify(driver).close();
+        verify(driver.switchTo()).window("blank");
+    }
+    
+    @Test
+    @DisplayName("Should quit a driver whose browser state cannot be cleared instead of reusing it")
+    void release_driverWithoutDevTools_quitsDriver() throws Exception {
+        WebDriver firstDriver = mock(WebDriver.class);
+        WebDriver secondDriver = mock(WebDriver.class);
+        when(webDriverProvider.create()).thenReturn(firstDriver, secondDriver);
+        WebDriverPool pool = newPool();
+        
+        pool.release(pool.lease());
+        
+        verify(firstDriver, times(1)).quit();
+        assertSame(secondDriver, pool.lease());
+        assertEquals(1, meterRegistry.get("smartui.driver.evicted").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should replace an idle driver that fails its health check")
+    void lease_unhealthyIdleDriver_isEvictedAndReplaced() throws Exception {
+        WebDriver brokenDriver = healthyDriver();
+        WebDriver freshDriver = mock(WebDriver.class);
+        when(webDriverProvider.create()).thenReturn(brokenDriver, freshDriver);
+        WebDriverPool pool = newPool();
+        
+        pool.release(pool.lease());
+        when(((HasCdp) brokenDriver).executeCdpCommand(eq("Network.clearBrowserCookies"), any()))
+            .thenThrow(new WebDriverException("session deleted"));
+        WebDriver leased = pool.lease();
+        
+        assertSame(freshDriver, leased);
+        verify(brokenDriver, times(1)).quit();
+        assertEquals(2, pool.getMetrics().getCreations());
+        assertEquals(1, pool.getMetrics().getEvictions());
+    }
+    
+    @Test
+    @DisplayName("Should recycle a driver once it reached the configured number of uses")
+    void release_maxUsesReached_quitsDriver() throws Exception {
+        runnerProperties.getDriverPool().setMaxUsesPerDriver(2);
+        WebDriver firstDriver = healthyDriver();
+        WebDriver secondDriver = mock(WebDriver.class);
+        when(webDriverProvider.create()).thenReturn(firstDriver, secondDriver);
+        WebDriverPool pool = newPool();
+        
+        pool.release(pool.lease());
+        pool.release(pool.lease());
+        
+        verify(firstDriver, times(1)).quit();
+        assertNotSame(firstDriver, pool.lease());
+    }
+    
+    @Test
+    @DisplayName("Should time out when every pooled driver is leased")
+    void lease_poolExhausted_timesOut() throws Exception {
+        when(webDriverProvider.create()).thenReturn(mock(WebDriver.class));
+        WebDriverPool pool = newPool();
+        
+        pool.lease();
+        
+        assertThrows(IllegalStateException.class, pool::lease);
+    }
+    
+    @Test
+    @DisplayName("Should quit idle drivers on close and drivers still leased once they are released")
+    void close_quitsIdleAndReleasedDrivers() throws Exception {
+        runnerProperties.getDriverPool().setMaxSize(2);
+        WebDriver idleDriver = mock(WebDriver.class);
+        WebDriver leasedDriver = mock(WebDriver.class);
+        when(webDriverProvider.create()).thenReturn(idleDriver, leasedDriver);
+        WebDriverPool pool = newPool();
+        
+        WebDriver first = pool.lease();
+        WebDriver second = pool.lease();
+        pool.release(first);
+        pool.close();
+        
+        verify(idleDriver, times(1)).quit();
+        verify(leasedDriver, never()).quit();
+        
+        pool.release(second);
+        verify(leasedDriver, times(1)).quit();
+        assertThrows(IllegalStateException.class, pool::lease);
+    }
+}
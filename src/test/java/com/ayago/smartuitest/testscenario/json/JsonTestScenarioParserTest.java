@@ -280,6 +280,63 @@ public class JsonTestScenarioParserTest {
     }
     
     
+    @Test
+    void parse_actionTypeAfterOtherFields_parsesCorrectly() throws IOException {
+        String jsonTestData = """
+            {
+              "host": "https://www.example.com",
+              "features": {
+                "SEARCH": { "context": { "store": "S1" }, "enable": true }
+              },
+              "pages": [
+                {
+                  "name": "Form",
+                  "action": {
+                    "fields": { "Name": "Jane", "Email": "jane@example.com" },
+                    "ignored": [1, { "nested": true }],
+                    "actionType": "Submit"
+                  }
+                }
+              ]
+            }""";
+        File jsonFile = createTempJsonFile(jsonTestData);
+        
+        TestScenario scenario = parser.parse(jsonFile);
+        
+        Action action = scenario.getPages().getFirst().getAction();
+        assertThat(action, instanceOf(SubmitAction.class));
+        assertEquals("jane@example.com", ((SubmitAction) action).getFields().get("Email"));
+        assertTrue(scenario.getFeatures().get("SEARCH").isEnable());
+        assertEquals("S1", scenario.getFeatures().get("SEARCH").getContext().get("store"));
+    }
+    
+    @Test
+    void parse_unknownActionType_throwsIOException() throws IOException {
+        String jsonTestData = """
+            {
+              "host": "https://www.example.com",
+              "pages": [{ "name": "Home", "action": { "actionType": "Drag", "target": "Logo" } }]
+            }""";
+        File jsonFile = createTempJsonFile(jsonTestData);
+        
+        IOException exception = assertThrows(IOException.class, () -> parser.parse(jsonFile));
+        assertTrue(exception.getMessage().contains("Unknown actionType 'Drag'. Supported types are Click, Enter, Submit."));
+    }
+    
+    @Test
+    void parse_featureWithoutEnable_throwsIOException() throws IOException {
+        String jsonTestData = """
+            {
+              "host": "https://www.example.com",
+              "features": { "SEARCH": { "context": {} } },
+              "pages": []
+            }""";
+        File jsonFile = createTempJsonFile(jsonTestData);
+        
+        IOException exception = assertThrows(IOException.class, () -> parser.parse(jsonFile));
+        assertTrue(exception.getMessage().contains("Missing or invalid 'enable' field (boolean expected) for feature 'SEARCH'."));
+    }
+    
     @Test
     void parse_invalidJsonSyntax_throwsIOException() throws IOException {
         // Extra comma, invalid JSON
@@ -357,5 +414,25 @@ public class JsonTestScenarioParserTest {
             assertThat(scenario.getFeatures().values(), hasSize(0));
         }
     }
+    
+    @Test
+    void parse_snapshot_parsesAndDefaultsToRestore() throws IOException {
+        String jsonTestData = """
+            {
+              "host": "https://www.example.com",
+              "snapshot": { "afterPage": "Login" },
+              "pages": [
+                { "name": "Login", "action": { "actionType": "Click", "target": "Sign in" } },
+                { "name": "Dashboard", "action": { "actionType": "Click", "target": "Orders" } }
+              ]
+            }""";
+        TestScenario scenario = parser.parse(createTempJsonFile(jsonTestData));
+        
+        assertEquals("Login", scenario.getSnapshot().getAfterPage());
+        assertTrue(scenario.getSnapshot().isRestore());
+        
+        File unknownPage = createTempJsonFile(jsonTestData.replace("\"afterPage\": \"Login\"", "\"afterPage\": \"Checkout\", \"restore\": false"));
+        IOException exception = assertThrows(IOException.class, () -> parser.parse(unknownPage));
+        assertTrue(exception.getMessage().contains("Checkout"));
+    }
 }
-
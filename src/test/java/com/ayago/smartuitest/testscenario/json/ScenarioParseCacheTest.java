@@ -0,0 +1,100 @@
+package com.ayago.smartuitest.testscenario.json;
+
+import com.ayago.smartuitest.testscenario.ClickAction;
+import com.ayago.smartuitest.testscenario.TestScenario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ScenarioParseCacheTest {
+    
+    private static final String SCENARIO = """
+        {
+          "host": "https://www.example.com",
+          "features": { "SEARCH": { "enable": true, "context": { "store": "S1" } } },
+          "pages": [{ "name": "Home", "action": { "actionType": "Click", "target": "%s" } }]
+        }""";
+    
+    @TempDir
+    Path tempDir;
+    
+    private final JsonTestScenarioParser jsonParser = new JsonTestScenarioParser();
+    private final AtomicInteger parses = new AtomicInteger();
+    private ParserProperties.Cache properties;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new ParserProperties().getCache();
+    }
+    
+    private TestScenario parse(byte[] json) throws IOException {
+        parses.incrementAndGet();
+        Path file = Files.write(Files.createTempFile(tempDir, "parsed", ".json"), json);
+        return jsonParser.parse(file.toFile());
+    }
+    
+    private File scenarioFile(String name, String target) throws IOException {
+        return Files.writeString(tempDir.resolve(name), SCENARIO.formatted(target)).toFile();
+    }
+    
+    @Test
+    @DisplayName("Should reuse the parsed scenario while the file is unchanged, even if it was touched")
+    void get_unchangedFile_parsesOnce() throws IOException {
+        ScenarioParseCache cache = new ScenarioParseCache(properties, new SimpleMeterRegistry());
+        File file = scenarioFile("login.json", "Sign in");
+        
+        TestScenario first = cache.get(file, this::parse);
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(file.lastModified() + 5_000));
+        TestScenario second = cache.get(file, this::parse);
+        
+        assertSame(first, second);
+        assertEquals(1, parses.get());
+    }
+    
+    @Test
+    @DisplayName("Should parse again when the content changed, even with the same size and modification time")
+    void get_changedContent_parsesAgain() throws IOException {
+        ScenarioParseCache cache = new ScenarioParseCache(properties, new SimpleMeterRegistry());
+        File file = scenarioFile("login.json", "Sign in");
+        long modified = file.lastModified();
+        
+        TestScenario first = cache.get(file, this::parse);
+        scenarioFile("login.json", "Log in!");
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(modified));
+        TestScenario second = cache.get(file, this::parse);
+        
+        assertNotSame(first, second);
+        assertEquals("Log in!", ((ClickAction) second.getPages().getFirst().getAction()).getTarget());
+        assertEquals(2, parses.get());
+    }
+    
+    @Test
+    @DisplayName("Should read a scenario persisted by an earlier run instead of parsing it")
+    void get_persistedScenario_skipsParsing() throws IOException {
+        properties.setDirectory(tempDir.resolve("cache").toString());
+        File file = scenarioFile("login.json", "Sign in");
+        new ScenarioParseCache(properties, new SimpleMeterRegistry()).get(file, this::parse);
+        
+        TestScenario restored = new ScenarioParseCache(properties, new SimpleMeterRegistry()).get(file, this::parse);
+        
+        assertEquals(1, parses.get());
+        assertEquals("https://www.example.com", restored.getHost());
+        assertEquals("S1", restored.getFeatures().get("SEARCH").getContext().get("store"));
+        assertThat(restored.getPages().getFirst().getAction(), instanceOf(ClickAction.class));
+    }
+}